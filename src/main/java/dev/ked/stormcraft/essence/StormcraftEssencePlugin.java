@@ -3,10 +3,13 @@ package dev.ked.stormcraft.essence;
 import dev.ked.stormcraft.StormcraftPlugin;
 import dev.ked.stormcraft.essence.ability.AbilityManager;
 import dev.ked.stormcraft.essence.ability.ActiveAbilityManager;
+import dev.ked.stormcraft.essence.award.AwardAggregator;
 import dev.ked.stormcraft.essence.command.EssenceCommand;
 import dev.ked.stormcraft.essence.command.EssenceConvertCommand;
 import dev.ked.stormcraft.essence.config.EssenceConfig;
 import dev.ked.stormcraft.essence.crafting.CompassCraftingListener;
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
+import dev.ked.stormcraft.essence.economy.NativeEssenceEconomy;
 import dev.ked.stormcraft.essence.infusion.InfusionPedestalManager;
 import dev.ked.stormcraft.essence.infusion.InfusedArmorListener;
 import dev.ked.stormcraft.essence.listener.PedestalInteractListener;
@@ -14,11 +17,19 @@ import dev.ked.stormcraft.essence.integration.PlaceholderAPIIntegration;
 import dev.ked.stormcraft.essence.listener.CompassInteractListener;
 import dev.ked.stormcraft.essence.listener.EssenceAwardListener;
 import dev.ked.stormcraft.essence.listener.PassiveAbilityListener;
+import dev.ked.stormcraft.essence.listener.PlayerDataLoadListener;
 import dev.ked.stormcraft.essence.listener.PlayerJoinListener;
 import dev.ked.stormcraft.essence.listener.StormriderListener;
 import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
+import dev.ked.stormcraft.essence.scheduler.ExpiryScheduler;
+import dev.ked.stormcraft.essence.scheduler.TickSpreadScheduler;
+import dev.ked.stormcraft.essence.storm.StormCoverage;
+import dev.ked.stormcraft.essence.storm.StormIndex;
+import dev.ked.stormcraft.essence.storm.StormSnapshotService;
 import net.milkbowl.vault.economy.Economy;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
@@ -28,8 +39,15 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class StormcraftEssencePlugin extends JavaPlugin {
     private StormcraftPlugin stormcraft;
     private Economy economy;
+    private EssenceEconomy essenceEconomy;
+    private AwardAggregator awardAggregator;
     private EssenceConfig config;
     private PlayerDataManager playerDataManager;
+    private TickSpreadScheduler tickScheduler;
+    private ExpiryScheduler expiryScheduler;
+    private StormSnapshotService stormSnapshots;
+    private StormIndex stormIndex;
+    private StormCoverage stormCoverage;
     private AbilityManager abilityManager;
     private ActiveAbilityManager activeAbilityManager;
     private InfusionPedestalManager infusionPedestalManager;
@@ -45,42 +63,67 @@ public class StormcraftEssencePlugin extends JavaPlugin {
 
         stormcraft = (StormcraftPlugin) getServer().getPluginManager().getPlugin("Stormcraft");
 
-        // Setup Vault economy
+        // Load config
+        config = new EssenceConfig(this);
+        config.loadConfig();
+
+        // Initialize managers
+        playerDataManager = new PlayerDataManager(this, config);
+        playerDataManager.loadStartupPlayerData();
+        playerDataManager.startMaintenanceTask();
+        playerDataManager.startAutosaveTask();
+        // Players already online after a reload never fire a join event
+        for (Player player : getServer().getOnlinePlayers()) {
+            playerDataManager.markOnline(player.getUniqueId());
+        }
+
+        // Setup Vault economy (the native store needs player data, so this comes after it)
         if (!setupEconomy()) {
             getLogger().severe("Vault economy not found! Disabling Stormcraft-Essence...");
             getServer().getPluginManager().disablePlugin(this);
             return;
         }
 
-        // Load config
-        config = new EssenceConfig(this);
-        config.loadConfig();
+        essenceEconomy = new EssenceEconomy(this, economy, config.isEconomyAsync(), config.getEconomyTimeoutMillis(),
+                config.getEconomyBalanceRefreshSeconds(), config.getEconomyBreakerThreshold(), config.getEconomyBreakerOpenSeconds());
 
-        // Initialize managers
-        playerDataManager = new PlayerDataManager(this);
-        playerDataManager.loadAllPlayerData();
+        if (config.isAwardCoalescingEnabled()) {
+            awardAggregator = new AwardAggregator(this, playerDataManager, essenceEconomy, config.getAwardWindowTicks());
+            awardAggregator.start();
+        }
+
+        tickScheduler = new TickSpreadScheduler(this);
+        tickScheduler.start();
+
+        abilityManager = new AbilityManager(this, config, playerDataManager, essenceEconomy, tickScheduler);
+        abilityManager.startDrain();
 
-        abilityManager = new AbilityManager(this, config, playerDataManager, economy);
-        abilityManager.startDrainTask();
+        expiryScheduler = new ExpiryScheduler(this);
+        expiryScheduler.start();
 
-        activeAbilityManager = new ActiveAbilityManager(this, config, playerDataManager, economy);
+        stormSnapshots = new StormSnapshotService(stormcraft);
+        stormIndex = new StormIndex(stormSnapshots);
+        stormCoverage = new StormCoverage(stormSnapshots);
 
-        infusionPedestalManager = new InfusionPedestalManager(this, config);
+        activeAbilityManager = new ActiveAbilityManager(this, config, playerDataManager, essenceEconomy, expiryScheduler, stormIndex, stormCoverage);
+
+        infusionPedestalManager = new InfusionPedestalManager(this, config, tickScheduler);
         infusionPedestalManager.startUpdateTask();
 
         // Register listeners
-        getServer().getPluginManager().registerEvents(new EssenceAwardListener(this, playerDataManager, economy), this);
+        getServer().getPluginManager().registerEvents(new EssenceAwardListener(this, playerDataManager, essenceEconomy, awardAggregator), this);
         getServer().getPluginManager().registerEvents(new PassiveAbilityListener(abilityManager, playerDataManager, config), this);
-        getServer().getPluginManager().registerEvents(new CompassInteractListener(activeAbilityManager, playerDataManager), this);
+        getServer().getPluginManager().registerEvents(new CompassInteractListener(activeAbilityManager, playerDataManager, config), this);
         getServer().getPluginManager().registerEvents(new StormriderListener(activeAbilityManager), this);
         getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerDataLoadListener(playerDataManager, config.getPrefetchTimeoutMillis()), this);
         getServer().getPluginManager().registerEvents(new CompassCraftingListener(this, economy, config.getCompassEssenceCost()), this);
         getServer().getPluginManager().registerEvents(new PedestalInteractListener(infusionPedestalManager), this);
         getServer().getPluginManager().registerEvents(new InfusedArmorListener(this), this);
 
         // Register commands
         getCommand("essence").setExecutor(new EssenceCommand(this, playerDataManager, abilityManager, config));
-        getCommand("essenceconvert").setExecutor(new EssenceConvertCommand(this, economy, config.getEssenceConversionRate()));
+        getCommand("essenceconvert").setExecutor(new EssenceConvertCommand(this, essenceEconomy, config.getEssenceConversionRate()));
 
         // Register PlaceholderAPI expansion if available
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
@@ -93,16 +136,38 @@ public class StormcraftEssencePlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (awardAggregator != null) {
+            awardAggregator.shutdown();
+        }
+
         if (abilityManager != null) {
-            abilityManager.stopDrainTask();
+            abilityManager.stopDrain();
+        }
+
+        if (tickScheduler != null) {
+            tickScheduler.shutdown();
+        }
+
+        // After everything that might still queue a withdrawal or deposit
+        if (essenceEconomy != null) {
+            essenceEconomy.shutdown(config.getEconomyShutdownTimeoutSeconds());
         }
 
         if (activeAbilityManager != null) {
             activeAbilityManager.shutdown();
         }
 
+        if (expiryScheduler != null) {
+            expiryScheduler.shutdown();
+        }
+
+        // Stop other plugins reaching native balances once they are being saved for the last time
+        if (economy instanceof NativeEssenceEconomy) {
+            getServer().getServicesManager().unregister(Economy.class, economy);
+        }
+
         if (playerDataManager != null) {
-            playerDataManager.saveAllPlayerData();
+            playerDataManager.shutdown();
         }
 
         getLogger().info("Stormcraft-Essence disabled!");
@@ -113,6 +178,13 @@ public class StormcraftEssencePlugin extends JavaPlugin {
             return false;
         }
 
+        if (config.isNativeEconomy()) {
+            economy = new NativeEssenceEconomy(this, playerDataManager);
+            getServer().getServicesManager().register(Economy.class, economy, this, ServicePriority.High);
+            getLogger().info("Using native essence balances (registered with Vault)");
+            return true;
+        }
+
         RegisteredServiceProvider<Economy> rsp = getServer().getServicesManager().getRegistration(Economy.class);
         if (rsp == null) {
             return false;
@@ -130,6 +202,20 @@ public class StormcraftEssencePlugin extends JavaPlugin {
         return economy;
     }
 
+    /**
+     * @return Non-blocking front for essence balance reads and writes - use this rather than the raw economy
+     */
+    public EssenceEconomy getEssenceEconomy() {
+        return essenceEconomy;
+    }
+
+    /**
+     * @return The award aggregator, or null if awards are applied as they arrive
+     */
+    public AwardAggregator getAwardAggregator() {
+        return awardAggregator;
+    }
+
     public EssenceConfig getEssenceConfig() {
         return config;
     }
@@ -138,10 +224,34 @@ public class StormcraftEssencePlugin extends JavaPlugin {
         return playerDataManager;
     }
 
+    public TickSpreadScheduler getTickScheduler() {
+        return tickScheduler;
+    }
+
+    public ExpiryScheduler getExpiryScheduler() {
+        return expiryScheduler;
+    }
+
+    public StormSnapshotService getStormSnapshots() {
+        return stormSnapshots;
+    }
+
+    public StormIndex getStormIndex() {
+        return stormIndex;
+    }
+
+    public StormCoverage getStormCoverage() {
+        return stormCoverage;
+    }
+
     public AbilityManager getAbilityManager() {
         return abilityManager;
     }
 
+    public ActiveAbilityManager getActiveAbilityManager() {
+        return activeAbilityManager;
+    }
+
     public InfusionPedestalManager getInfusionPedestalManager() {
         return infusionPedestalManager;
     }
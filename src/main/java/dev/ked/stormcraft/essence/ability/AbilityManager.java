@@ -2,62 +2,329 @@ package dev.ked.stormcraft.essence.ability;
 
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
 import dev.ked.stormcraft.essence.config.EssenceConfig;
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
+import dev.ked.stormcraft.essence.model.DerivedStats;
 import dev.ked.stormcraft.essence.model.PassiveAbility;
 import dev.ked.stormcraft.essence.model.PlayerEssenceData;
 import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
-import net.milkbowl.vault.economy.Economy;
+import dev.ked.stormcraft.essence.scheduler.TickSpreadScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Manages passive ability activation and essence drain mechanics.
+ *
+ * Drain runs at a constant rate between passive changes, so it is not withdrawn on a timer.
+ * Each draining player has a session holding the rate and when it started; what they owe is
+ * worked out from the elapsed time whenever it is needed and withdrawn when their passives change,
+ * they quit, or their essence runs out. Draining players also sit on a {@link TickSpreadScheduler}
+ * wheel that settles each of them once per settle interval, spread over the interval's ticks;
+ * a one-shot run-out timer is only armed when a player would run out before their next visit.
  */
 public class AbilityManager {
     private final StormcraftEssencePlugin plugin;
     private final EssenceConfig config;
     private final PlayerDataManager playerDataManager;
-    private final Economy economy;
-    private BukkitTask drainTask;
+    private final EssenceEconomy economy;
+    private final TickSpreadScheduler.SpreadTask<UUID> settleWheel;
+
+    // Online players with at least one active passive (mutated on the main thread, read from any)
+    private final Map<UUID, DrainSession> drainSessions = new ConcurrentHashMap<>();
+
+    // Metrics (main thread only)
+    private long drainSettlements;
+    private long drainVisits;
+    private long runOutTimersFired;
+    private long drainExhaustions;
+
+    /**
+     * Drain accruing for one player since {@code sinceNanos}
+     */
+    private static final class DrainSession {
+        private final Player player;
+        private final double ratePerSecond;
+        private long sinceNanos;
+        private BukkitTask runOutTimer; // Only armed when the balance runs out before the next wheel visit
+
+        private DrainSession(Player player, double ratePerSecond, long sinceNanos) {
+            this.player = player;
+            this.ratePerSecond = ratePerSecond;
+            this.sinceNanos = sinceNanos;
+        }
+
+        private synchronized double owed(long now) {
+            return ratePerSecond * (now - sinceNanos) / 1_000_000_000.0;
+        }
+
+        /**
+         * @return What was owed, now considered charged
+         */
+        private synchronized double take(long now) {
+            double owed = owed(now);
+            sinceNanos = now;
+            return owed;
+        }
+    }
 
     public AbilityManager(StormcraftEssencePlugin plugin, EssenceConfig config,
-                         PlayerDataManager playerDataManager, Economy economy) {
+                         PlayerDataManager playerDataManager, EssenceEconomy economy, TickSpreadScheduler scheduler) {
         this.plugin = plugin;
         this.config = config;
         this.playerDataManager = playerDataManager;
         this.economy = economy;
+        this.settleWheel = scheduler.register("drain", 20 * config.getDrainSettleIntervalSeconds(), this::onSettleVisit);
+        economy.setAccruedDebt(this::getAccruedDrain);
+    }
+
+    /**
+     * Starts draining players already online (after a reload they never fire a join event)
+     */
+    public void startDrain() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            trackPlayer(player);
+        }
+    }
+
+    /**
+     * Charges everything still owed and cancels every timer (call on disable, before the economy shuts down)
+     */
+    public void stopDrain() {
+        for (UUID playerId : new ArrayList<>(drainSessions.keySet())) {
+            endSession(playerId);
+        }
+    }
+
+    /**
+     * Re-rates every drain session after a config reload: what each player owes so far is
+     * charged at the old rate, then their session restarts at the rate the new config gives them
+     */
+    public void restartDrainSessions() {
+        for (DrainSession session : new ArrayList<>(drainSessions.values())) {
+            endSession(session.player.getUniqueId());
+            PlayerEssenceData data = playerDataManager.getPlayerData(session.player);
+            if (session.player.isOnline() && data.hasActivePassives()) {
+                startSession(session.player, data);
+            }
+        }
+    }
+
+    /**
+     * Starts a drain session for a joining player if they logged out with passives active.
+     * Waits for the record if it is still being prefetched.
+     */
+    public void trackPlayer(Player player) {
+        playerDataManager.withPlayerData(player.getUniqueId(), data -> {
+            if (player.isOnline() && data.hasActivePassives() && !drainSessions.containsKey(player.getUniqueId())) {
+                startSession(player, data);
+            }
+        });
+    }
+
+    /**
+     * Charges what a quitting player owes and ends their session
+     */
+    public void untrackPlayer(UUID playerId) {
+        endSession(playerId);
     }
 
     /**
-     * Starts the essence drain task that runs periodically
+     * @return Essence a player owes for drain since it was last withdrawn (safe from any thread)
      */
-    public void startDrainTask() {
-        int interval = config.getDrainIntervalTicks();
+    public double getAccruedDrain(UUID playerId) {
+        DrainSession session = drainSessions.get(playerId);
+        return session != null ? session.owed(System.nanoTime()) : 0.0;
+    }
+
+    private void startSession(Player player, PlayerEssenceData data) {
+        double rate = calculateDrainRate(data);
+        if (rate <= 0) {
+            return;
+        }
+
+        DrainSession session = new DrainSession(player, rate, System.nanoTime());
+        drainSessions.put(player.getUniqueId(), session);
+        settleWheel.add(player.getUniqueId());
+        armRunOutTimer(session);
+    }
 
-        drainTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                PlayerEssenceData data = playerDataManager.getPlayerData(player);
+    private void endSession(UUID playerId) {
+        DrainSession session = drainSessions.remove(playerId);
+        if (session == null) {
+            return;
+        }
 
-                if (data.hasActivePassives()) {
-                    drainEssence(player, data);
-                }
+        settleWheel.remove(playerId);
+        cancelRunOutTimer(session);
+        if (economy.isOpen()) {
+            // The session is going away, so queue the withdrawal rather than wait for the breaker
+            double owed = session.take(System.nanoTime());
+            if (owed > 0) {
+                drainSettlements++;
+                economy.withdraw(session.player, owed);
             }
-        }, interval, interval);
+            return;
+        }
+        settle(session);
     }
 
     /**
-     * Stops the essence drain task
+     * Settles a draining player on their slot of the wheel
      */
-    public void stopDrainTask() {
-        if (drainTask != null) {
-            drainTask.cancel();
+    private void onSettleVisit(UUID playerId) {
+        DrainSession session = drainSessions.get(playerId);
+        if (session == null) {
+            return;
+        }
+
+        drainVisits++;
+        if (settle(session)) {
+            armRunOutTimer(session);
+        } else {
+            exhaust(session);
         }
     }
 
     /**
-     * Calculates the essence drain rate per second for a player
+     * Arms a one-shot timer for the moment the balance runs out, if that comes before the next wheel visit
+     */
+    private void armRunOutTimer(DrainSession session) {
+        cancelRunOutTimer(session);
+        double secondsLeft = Math.max(0.0, economy.getBalance(session.player)) / session.ratePerSecond;
+        if (secondsLeft >= config.getDrainSettleIntervalSeconds()) {
+            return;
+        }
+
+        long delayTicks = Math.max(1L, (long) Math.ceil(secondsLeft * 20.0));
+        session.runOutTimer = Bukkit.getScheduler().runTaskLater(plugin, () -> onRunOut(session), delayTicks);
+    }
+
+    private void cancelRunOutTimer(DrainSession session) {
+        if (session.runOutTimer != null) {
+            session.runOutTimer.cancel();
+            session.runOutTimer = null;
+        }
+    }
+
+    private void onRunOut(DrainSession session) {
+        session.runOutTimer = null;
+        if (drainSessions.get(session.player.getUniqueId()) != session) {
+            return; // Ended while the timer was queued
+        }
+
+        runOutTimersFired++;
+        if (settle(session)) {
+            // Deposits since the timer was armed push the run-out time back
+            armRunOutTimer(session);
+        } else {
+            exhaust(session);
+        }
+    }
+
+    private void exhaust(DrainSession session) {
+        drainSessions.remove(session.player.getUniqueId());
+        settleWheel.remove(session.player.getUniqueId());
+        cancelRunOutTimer(session);
+        drainExhaustions++;
+        PlayerEssenceData data = playerDataManager.getPlayerData(session.player);
+        disableAllPassives(session.player, data);
+        session.player.sendMessage(config.getMessage("prefix") +
+                config.getMessage("insufficient_essence")
+                        .replace("{ability}", "Passive abilities")
+                        .replace("{rate}", String.format("%.2f", session.ratePerSecond)));
+    }
+
+    /**
+     * Withdraws what the session owes
+     * @return false if the player couldn't cover it (what they had left is taken)
+     */
+    private boolean settle(DrainSession session) {
+        if (economy.isOpen()) {
+            return true; // Keep accruing until the economy is reachable again
+        }
+
+        double owed = session.take(System.nanoTime());
+        if (owed <= 0) {
+            return true;
+        }
+
+        drainSettlements++;
+        if (economy.tryWithdraw(session.player, owed)) {
+            return true;
+        }
+
+        // Passives were on until now, so the drain was provided - take what's left
+        double remaining = economy.getBalance(session.player);
+        if (remaining > 0) {
+            economy.withdraw(session.player, Math.min(remaining, owed));
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of players currently draining
+     */
+    public int getDrainingCount() {
+        return drainSessions.size();
+    }
+
+    /**
+     * @return Withdrawals made for drain (the old model made one per player every drain interval)
+     */
+    public long getDrainSettlements() {
+        return drainSettlements;
+    }
+
+    /**
+     * @return Settlements made from the spread wheel
+     */
+    public long getDrainVisits() {
+        return drainVisits;
+    }
+
+    public long getRunOutTimersFired() {
+        return runOutTimersFired;
+    }
+
+    /**
+     * @return Sessions ended because the player ran out of essence
+     */
+    public long getDrainExhaustions() {
+        return drainExhaustions;
+    }
+
+    /**
+     * Gets a player's derived stats, recomputing them only if SEL, passives or config changed since last time
+     */
+    public DerivedStats getStats(PlayerEssenceData data) {
+        int dataVersion = data.getStatsVersion();
+        int configVersion = config.getVersion();
+        DerivedStats stats = data.getDerivedStats();
+        if (stats != null && stats.isCurrent(dataVersion, configVersion)) {
+            return stats;
+        }
+
+        // Stamped with the version read before computing, so a change made meanwhile forces another recompute
+        stats = new DerivedStats(dataVersion, configVersion, computeDrainRate(data),
+                computeStormResistanceReduction(data), computeLightningReflexesSpeed(data), computeStormbornRegen(data));
+        data.setDerivedStats(stats);
+        return stats;
+    }
+
+    /**
+     * Gets the essence drain rate per second for a player
      */
     public double calculateDrainRate(PlayerEssenceData data) {
+        return getStats(data).drainRate();
+    }
+
+    private double computeDrainRate(PlayerEssenceData data) {
         int activeCount = data.getActivePassives().size();
         if (activeCount == 0) {
             return 0.0;
@@ -78,35 +345,6 @@ public class AbilityManager {
         return baseDrain * activeCount * selMultiplier * passiveMultiplier;
     }
 
-    /**
-     * Drains essence from a player based on their active passives
-     */
-    private void drainEssence(Player player, PlayerEssenceData data) {
-        double drainPerSecond = calculateDrainRate(data);
-        if (drainPerSecond <= 0) {
-            return;
-        }
-
-        // Calculate drain for this interval
-        int intervalTicks = config.getDrainIntervalTicks();
-        double drainAmount = drainPerSecond * (intervalTicks / 20.0);
-
-        // Check if player has enough essence
-        double currentBalance = economy.getBalance(player);
-        if (currentBalance < drainAmount) {
-            // Insufficient essence - disable all passives
-            disableAllPassives(player, data);
-            player.sendMessage(config.getMessage("prefix") +
-                    config.getMessage("insufficient_essence")
-                            .replace("{ability}", "Passive abilities")
-                            .replace("{rate}", String.format("%.2f", drainPerSecond)));
-            return;
-        }
-
-        // Withdraw essence
-        economy.withdrawPlayer(player, drainAmount);
-    }
-
     /**
      * Disables all passive abilities for a player
      */
@@ -135,6 +373,10 @@ public class AbilityManager {
      */
     public boolean togglePassive(Player player, PassiveAbility ability) {
         PlayerEssenceData data = playerDataManager.getPlayerData(player);
+        if (data.isPlaceholder()) {
+            player.sendMessage(config.getMessage("prefix") + config.getMessage("data_loading"));
+            return false;
+        }
 
         // Check unlock requirement
         if (!canEnablePassive(player, ability)) {
@@ -148,10 +390,14 @@ public class AbilityManager {
             return false;
         }
 
-        // Toggle the ability
+        // Charge drain at the old rate, then toggle and restart at the new one
+        endSession(player.getUniqueId());
         boolean wasActive = data.getActivePassives().contains(ability);
         data.togglePassive(ability);
         playerDataManager.savePlayerData(player.getUniqueId());
+        if (data.hasActivePassives()) {
+            startSession(player, data);
+        }
 
         // Calculate new drain rate
         double drainRate = calculateDrainRate(data);
@@ -172,9 +418,13 @@ public class AbilityManager {
     }
 
     /**
-     * Calculates storm damage reduction % for a player
+     * Gets storm damage reduction % for a player
      */
     public double getStormResistanceReduction(PlayerEssenceData data) {
+        return getStats(data).resistanceReduction();
+    }
+
+    private double computeStormResistanceReduction(PlayerEssenceData data) {
         if (!data.getActivePassives().contains(PassiveAbility.STORM_RESISTANCE)) {
             return 0.0;
         }
@@ -193,9 +443,13 @@ public class AbilityManager {
     }
 
     /**
-     * Calculates speed amplifier for a player during storms
+     * Gets speed amplifier for a player during storms
      */
     public int getLightningReflexesSpeed(PlayerEssenceData data) {
+        return getStats(data).reflexesSpeed();
+    }
+
+    private int computeLightningReflexesSpeed(PlayerEssenceData data) {
         if (!data.getActivePassives().contains(PassiveAbility.LIGHTNING_REFLEXES)) {
             return -1; // No speed boost
         }
@@ -215,9 +469,13 @@ public class AbilityManager {
     }
 
     /**
-     * Calculates health regen amount for a player when exposed to storms
+     * Gets health regen amount for a player when exposed to storms
      */
     public double getStormbornRegen(PlayerEssenceData data) {
+        return getStats(data).stormbornRegen();
+    }
+
+    private double computeStormbornRegen(PlayerEssenceData data) {
         if (!data.getActivePassives().contains(PassiveAbility.STORMBORN)) {
             return 0.0;
         }
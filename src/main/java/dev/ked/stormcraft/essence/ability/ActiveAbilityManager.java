@@ -1,22 +1,24 @@
 package dev.ked.stormcraft.essence.ability;
 
-import dev.ked.stormcraft.StormcraftPlugin;
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
+import dev.ked.stormcraft.essence.api.events.CooldownReadyEvent;
+import dev.ked.stormcraft.essence.api.events.EssenceEffectExpiredEvent;
 import dev.ked.stormcraft.essence.config.EssenceConfig;
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
 import dev.ked.stormcraft.essence.model.PassiveAbility;
 import dev.ked.stormcraft.essence.model.PlayerEssenceData;
 import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
+import dev.ked.stormcraft.essence.scheduler.ExpiryScheduler;
+import dev.ked.stormcraft.essence.storm.StormCoverage;
+import dev.ked.stormcraft.essence.storm.StormIndex;
 import dev.ked.stormcraft.model.TravelingStorm;
-import dev.ked.stormcraft.schedule.StormManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
 import java.util.*;
@@ -28,24 +30,58 @@ public class ActiveAbilityManager {
     private final StormcraftEssencePlugin plugin;
     private final EssenceConfig config;
     private final PlayerDataManager playerDataManager;
-    private final Economy economy;
-    private final StormcraftPlugin stormcraftPlugin;
+    private final EssenceEconomy economy;
+    private final StormIndex stormIndex;
 
-    // Cooldown tracking (player UUID -> ability -> expiry time)
-    private final Map<UUID, Map<PassiveAbility, Long>> cooldowns = new HashMap<>();
-
-    // Active effects tracking
-    private final Map<UUID, Long> eyeOfStormExpiry = new HashMap<>();
-    private final Map<UUID, BukkitRunnable> stormSenseParticles = new HashMap<>();
-    private final Map<UUID, Boolean> stormriderActive = new HashMap<>(); // Stormrider flight mode toggle
+    // Cooldowns and timed effects (Eye of the Storm immunity, Stormrider toggle)
+    private final CooldownStore cooldowns;
+    private final StormSenseRenderer stormSense;
+    private final StormriderTracker stormrider;
 
     public ActiveAbilityManager(StormcraftEssencePlugin plugin, EssenceConfig config,
-                               PlayerDataManager playerDataManager, Economy economy) {
+                               PlayerDataManager playerDataManager, EssenceEconomy economy, ExpiryScheduler expiryScheduler,
+                               StormIndex stormIndex, StormCoverage stormCoverage) {
         this.plugin = plugin;
         this.config = config;
         this.playerDataManager = playerDataManager;
         this.economy = economy;
-        this.stormcraftPlugin = (StormcraftPlugin) Bukkit.getPluginManager().getPlugin("Stormcraft");
+        this.stormIndex = stormIndex;
+        this.stormSense = new StormSenseRenderer(plugin, stormIndex,
+                config.getStormSenseParticleDuration(), config.getStormSenseParticleInterval());
+        this.stormrider = new StormriderTracker(plugin, stormCoverage);
+        this.cooldowns = new CooldownStore(expiryScheduler, new CooldownStore.ExpiryListener() {
+            @Override
+            public void onCooldownReady(UUID playerId, PassiveAbility ability) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    Bukkit.getPluginManager().callEvent(new CooldownReadyEvent(player, ability));
+                }
+            }
+
+            @Override
+            public void onEffectExpired(UUID playerId, PassiveAbility ability) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player == null) {
+                    return;
+                }
+
+                if (ability == PassiveAbility.EYE_OF_THE_STORM) {
+                    player.sendMessage(Component.text("☁ Eye of the Storm has faded - you are exposed again")
+                            .color(NamedTextColor.GRAY));
+                }
+                Bukkit.getPluginManager().callEvent(new EssenceEffectExpiredEvent(player, ability));
+            }
+        });
+    }
+
+    /**
+     * Drops a quitting player's toggles and particle trail. Cooldowns still running are kept,
+     * so relogging doesn't reset them.
+     */
+    public void onPlayerQuit(Player player) {
+        stormSense.stop(player);
+        stormrider.untrack(player);
+        cooldowns.evict(player.getUniqueId());
     }
 
     /**
@@ -54,6 +90,10 @@ public class ActiveAbilityManager {
      */
     public boolean useAbility(Player player, PassiveAbility ability) {
         PlayerEssenceData data = playerDataManager.getPlayerData(player);
+        if (data.isPlaceholder()) {
+            player.sendMessage(config.getMessage("prefix") + config.getMessage("data_loading"));
+            return false;
+        }
 
         // Check if ability is active (not passive)
         if (!ability.isActive()) {
@@ -70,8 +110,8 @@ public class ActiveAbilityManager {
 
         // Check cooldown
         if (isOnCooldown(player, ability)) {
-            long remaining = getCooldownRemaining(player, ability);
-            player.sendMessage(Component.text("Ability on cooldown: " + formatTime(remaining))
+            long remaining = cooldowns.getCooldownRemainingTicks(player.getUniqueId(), ability);
+            player.sendMessage(Component.text("Ability on cooldown: " + formatTime(remaining * 50))
                     .color(NamedTextColor.RED));
             return false;
         }
@@ -96,28 +136,8 @@ public class ActiveAbilityManager {
             return false;
         }
 
-        // Cancel existing particle task if any
-        stopStormSense(player);
-
-        // Start particle trail task
-        BukkitRunnable particleTask = new BukkitRunnable() {
-            int ticks = 0;
-            final int duration = config.getStormSenseParticleDuration();
-
-            @Override
-            public void run() {
-                if (ticks++ >= duration || !player.isOnline()) {
-                    stopStormSense(player);
-                    return;
-                }
-
-                showStormSenseParticles(player);
-            }
-        };
-
-        int interval = config.getStormSenseParticleInterval();
-        particleTask.runTaskTimer(plugin, 0L, interval);
-        stormSenseParticles.put(player.getUniqueId(), particleTask);
+        // Replaces any trail already showing
+        stormSense.start(player);
 
         int cooldown = config.getCooldownSeconds(PassiveAbility.STORM_SENSE) * 1000;
         setCooldown(player, PassiveAbility.STORM_SENSE, cooldown);
@@ -126,43 +146,6 @@ public class ActiveAbilityManager {
         return true;
     }
 
-    /**
-     * Shows particles leading to nearest storm edge
-     */
-    private void showStormSenseParticles(Player player) {
-        if (stormcraftPlugin == null) return;
-
-        StormManager stormManager = stormcraftPlugin.getStormManager();
-        List<TravelingStorm> storms = stormManager.getActiveStorms();
-
-        if (storms.isEmpty()) {
-            player.sendMessage(Component.text("No storms nearby").color(NamedTextColor.GRAY));
-            stopStormSense(player);
-            return;
-        }
-
-        // Find closest storm
-        TravelingStorm closest = findClosestStorm(player, storms);
-        if (closest == null) return;
-
-        Location playerLoc = player.getLocation().add(0, 1, 0); // Eye level
-        Location stormLoc = closest.getCurrentLocation();
-        double radius = closest.getDamageRadius();
-
-        // Calculate escape direction (away from storm)
-        Vector direction = playerLoc.toVector().subtract(stormLoc.toVector()).normalize();
-
-        // Calculate distance to edge
-        double distToCenter = playerLoc.distance(stormLoc);
-        double distToEdge = Math.max(0, distToCenter - radius);
-
-        // Show particles leading away from storm
-        for (int i = 1; i <= 5; i++) {
-            Location particleLoc = playerLoc.clone().add(direction.clone().multiply(i * 2));
-            player.spawnParticle(Particle.ELECTRIC_SPARK, particleLoc, 3, 0.2, 0.2, 0.2, 0.01);
-        }
-    }
-
     /**
      * Eye of the Storm - 10 minute immunity bubble (500 essence, 20 min cooldown)
      */
@@ -172,8 +155,8 @@ public class ActiveAbilityManager {
             return false;
         }
 
-        long duration = config.getEyeOfStormDuration() * 1000; // Convert seconds to milliseconds
-        eyeOfStormExpiry.put(player.getUniqueId(), System.currentTimeMillis() + duration);
+        long duration = config.getEyeOfStormDuration() * 20L; // Convert seconds to ticks
+        cooldowns.setEffect(player.getUniqueId(), PassiveAbility.EYE_OF_THE_STORM, duration);
 
         int cooldown = config.getCooldownSeconds(PassiveAbility.EYE_OF_THE_STORM) * 1000;
         setCooldown(player, PassiveAbility.EYE_OF_THE_STORM, cooldown);
@@ -190,15 +173,7 @@ public class ActiveAbilityManager {
      * Checks if player has Eye of the Storm active
      */
     public boolean hasStormImmunity(UUID playerId) {
-        Long expiry = eyeOfStormExpiry.get(playerId);
-        if (expiry == null) return false;
-
-        if (System.currentTimeMillis() > expiry) {
-            eyeOfStormExpiry.remove(playerId);
-            return false;
-        }
-
-        return true;
+        return cooldowns.isEffectActive(playerId, PassiveAbility.EYE_OF_THE_STORM);
     }
 
     /**
@@ -232,37 +207,28 @@ public class ActiveAbilityManager {
             return false;
         }
 
-        if (stormcraftPlugin == null) {
+        if (!stormIndex.isAvailable()) {
             player.sendMessage(Component.text("Stormcraft plugin not found!").color(NamedTextColor.RED));
             return false;
         }
 
-        StormManager stormManager = stormcraftPlugin.getStormManager();
-        List<TravelingStorm> storms = stormManager.getActiveStorms();
-
-        int pushedCount = 0;
         Location playerLoc = player.getLocation();
         double pushDistance = config.getStormclearPushDistance();
 
-        for (TravelingStorm storm : storms) {
+        int pushedCount = stormIndex.forEachWithin(playerLoc.getWorld(), playerLoc.getX(), playerLoc.getZ(), pushDistance, index -> {
+            TravelingStorm storm = stormIndex.getStorm(index);
             Location stormLoc = storm.getCurrentLocation();
-            if (!stormLoc.getWorld().equals(player.getWorld())) continue;
 
-            double distance = playerLoc.distance(stormLoc);
-            if (distance <= pushDistance) {
-                // Push storm away - set new target opposite from player
-                Vector pushDirection = stormLoc.toVector().subtract(playerLoc.toVector()).normalize();
-                Location newTarget = stormLoc.clone().add(pushDirection.multiply(pushDistance * 3));
-                storm.setTargetLocation(newTarget);
+            // Push storm away - set new target opposite from player
+            Vector pushDirection = stormLoc.toVector().subtract(playerLoc.toVector()).normalize();
+            Location newTarget = stormLoc.clone().add(pushDirection.multiply(pushDistance * 3));
+            storm.setTargetLocation(newTarget);
 
-                // Boost storm speed temporarily
-                double speedBoost = config.getStormclearSpeedAmplifier();
-                int speedDuration = config.getStormclearSpeedDuration();
-                storm.setTempSpeedBoost(speedBoost, speedDuration);
-
-                pushedCount++;
-            }
-        }
+            // Boost storm speed temporarily
+            double speedBoost = config.getStormclearSpeedAmplifier();
+            int speedDuration = config.getStormclearSpeedDuration();
+            storm.setTempSpeedBoost(speedBoost, speedDuration);
+        });
 
         int cooldown = config.getCooldownSeconds(PassiveAbility.STORMCLEAR) * 1000;
         setCooldown(player, PassiveAbility.STORMCLEAR, cooldown);
@@ -281,18 +247,20 @@ public class ActiveAbilityManager {
      */
     private boolean toggleStormrider(Player player) {
         UUID playerId = player.getUniqueId();
-        boolean currentlyActive = stormriderActive.getOrDefault(playerId, false);
+        boolean currentlyActive = isStormriderActive(playerId);
 
         if (currentlyActive) {
             // Disable Stormrider
-            stormriderActive.put(playerId, false);
+            cooldowns.clearEffect(playerId, PassiveAbility.STORMRIDER);
+            stormrider.untrack(player);
             player.setAllowFlight(false);
             player.setFlying(false);
             player.sendMessage(Component.text("✈ Stormrider deactivated")
                     .color(NamedTextColor.GRAY));
         } else {
             // Enable Stormrider
-            stormriderActive.put(playerId, true);
+            cooldowns.setEffect(playerId, PassiveAbility.STORMRIDER, CooldownStore.INDEFINITE);
+            stormrider.track(player);
             player.sendMessage(Component.text("✈ Stormrider activated - Flight enabled in storms!")
                     .color(NamedTextColor.AQUA));
         }
@@ -304,70 +272,31 @@ public class ActiveAbilityManager {
      * Checks if player has Stormrider active
      */
     public boolean isStormriderActive(UUID playerId) {
-        return stormriderActive.getOrDefault(playerId, false);
+        return cooldowns.isEffectActive(playerId, PassiveAbility.STORMRIDER);
     }
 
     /**
      * Helper methods
      */
 
-    private TravelingStorm findClosestStorm(Player player, List<TravelingStorm> storms) {
-        TravelingStorm closest = null;
-        double closestDist = Double.MAX_VALUE;
-
-        for (TravelingStorm storm : storms) {
-            Location stormLoc = storm.getCurrentLocation();
-            if (!stormLoc.getWorld().equals(player.getWorld())) continue;
-
-            double dist = player.getLocation().distance(stormLoc);
-            if (dist < closestDist) {
-                closestDist = dist;
-                closest = storm;
-            }
-        }
-
-        return closest;
-    }
-
     private boolean chargeEssence(Player player, double amount) {
-        if (economy.getBalance(player) < amount) {
-            player.sendMessage(Component.text("Insufficient essence! Need " + amount + " essence")
+        // Confirmed against the local balance view; the provider withdrawal happens in the background
+        if (!economy.tryWithdraw(player, amount)) {
+            player.sendMessage(Component.text(economy.isOpen()
+                            ? "Essence is unavailable right now, try again shortly"
+                            : "Insufficient essence! Need " + amount + " essence")
                     .color(NamedTextColor.RED));
             return false;
         }
-
-        economy.withdrawPlayer(player, amount);
         return true;
     }
 
     private void setCooldown(Player player, PassiveAbility ability, long cooldownMillis) {
-        cooldowns.computeIfAbsent(player.getUniqueId(), k -> new HashMap<>())
-                .put(ability, System.currentTimeMillis() + cooldownMillis);
+        cooldowns.setCooldown(player.getUniqueId(), ability, cooldownMillis / 50);
     }
 
     private boolean isOnCooldown(Player player, PassiveAbility ability) {
-        Map<PassiveAbility, Long> playerCooldowns = cooldowns.get(player.getUniqueId());
-        if (playerCooldowns == null) return false;
-
-        Long expiry = playerCooldowns.get(ability);
-        if (expiry == null) return false;
-
-        if (System.currentTimeMillis() > expiry) {
-            playerCooldowns.remove(ability);
-            return false;
-        }
-
-        return true;
-    }
-
-    private long getCooldownRemaining(Player player, PassiveAbility ability) {
-        Map<PassiveAbility, Long> playerCooldowns = cooldowns.get(player.getUniqueId());
-        if (playerCooldowns == null) return 0;
-
-        Long expiry = playerCooldowns.get(ability);
-        if (expiry == null) return 0;
-
-        return Math.max(0, expiry - System.currentTimeMillis());
+        return cooldowns.isOnCooldown(player.getUniqueId(), ability);
     }
 
     private String formatTime(long millis) {
@@ -380,24 +309,20 @@ public class ActiveAbilityManager {
         return minutes + "m " + seconds + "s";
     }
 
-    private void stopStormSense(Player player) {
-        BukkitRunnable task = stormSenseParticles.remove(player.getUniqueId());
-        if (task != null) {
-            task.cancel();
-        }
+    public StormSenseRenderer getStormSenseRenderer() {
+        return stormSense;
+    }
+
+    public StormriderTracker getStormriderTracker() {
+        return stormrider;
     }
 
     /**
      * Cleanup when plugin disables
      */
     public void shutdown() {
-        // Cancel all particle tasks
-        for (BukkitRunnable task : stormSenseParticles.values()) {
-            task.cancel();
-        }
-        stormSenseParticles.clear();
+        stormSense.shutdown();
+        stormrider.shutdown();
         cooldowns.clear();
-        eyeOfStormExpiry.clear();
-        stormriderActive.clear();
     }
 }
@@ -0,0 +1,161 @@
+package dev.ked.stormcraft.essence.ability;
+
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.scheduler.ExpiryScheduler;
+import org.bukkit.Bukkit;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ability cooldowns and timed effects for every player, as one dense array per player:
+ * slot {@code ordinal} holds the tick an ability's cooldown ends, slot {@code ABILITIES + ordinal}
+ * the tick its effect ends ({@link #INDEFINITE} for toggles like Stormrider). Times are server ticks,
+ * which only move forward. Lookups allocate nothing and are safe from any thread.
+ *
+ * Every cooldown and timed effect also gets a timeout on the shared {@link ExpiryScheduler}, which
+ * tells the listener on the tick it ends - nothing polls for expiry.
+ *
+ * Quitting drops toggles; the rest of a player's array is kept only while something is still
+ * running, so relogging can't reset a cooldown, and is dropped when its last timeout fires.
+ */
+public class CooldownStore {
+    private static final int ABILITIES = PassiveAbility.values().length;
+    public static final long INDEFINITE = Long.MAX_VALUE;
+
+    private final Map<UUID, AtomicLongArray> records = new ConcurrentHashMap<>();
+    private final ExpiryScheduler scheduler;
+    private final ExpiryListener listener;
+
+    /**
+     * Told on the main thread when a cooldown or timed effect ends (not when one is cleared or replaced)
+     */
+    public interface ExpiryListener {
+        void onCooldownReady(UUID playerId, PassiveAbility ability);
+
+        void onEffectExpired(UUID playerId, PassiveAbility ability);
+    }
+
+    public CooldownStore(ExpiryScheduler scheduler, ExpiryListener listener) {
+        this.scheduler = scheduler;
+        this.listener = listener;
+    }
+
+    /**
+     * @return The current server tick
+     */
+    public static long now() {
+        return Bukkit.getCurrentTick();
+    }
+
+    public void setCooldown(UUID playerId, PassiveAbility ability, long ticks) {
+        long end = now() + ticks;
+        record(playerId).set(ability.ordinal(), end);
+        scheduler.scheduleAt(end, () -> {
+            if (expire(playerId, ability.ordinal(), end)) {
+                listener.onCooldownReady(playerId, ability);
+            }
+        });
+    }
+
+    public boolean isOnCooldown(UUID playerId, PassiveAbility ability) {
+        return getCooldownRemainingTicks(playerId, ability) > 0;
+    }
+
+    /**
+     * @return Ticks until the cooldown ends, or 0 if it is not running
+     */
+    public long getCooldownRemainingTicks(UUID playerId, PassiveAbility ability) {
+        AtomicLongArray slots = records.get(playerId);
+        return slots != null ? Math.max(0L, slots.get(ability.ordinal()) - now()) : 0L;
+    }
+
+    /**
+     * Starts an effect for a number of ticks, or until cleared if {@link #INDEFINITE}
+     */
+    public void setEffect(UUID playerId, PassiveAbility ability, long ticks) {
+        int index = ABILITIES + ability.ordinal();
+        if (ticks == INDEFINITE) {
+            record(playerId).set(index, INDEFINITE);
+            return;
+        }
+
+        long end = now() + ticks;
+        record(playerId).set(index, end);
+        scheduler.scheduleAt(end, () -> {
+            if (expire(playerId, index, end)) {
+                listener.onEffectExpired(playerId, ability);
+            }
+        });
+    }
+
+    public void clearEffect(UUID playerId, PassiveAbility ability) {
+        AtomicLongArray slots = records.get(playerId);
+        if (slots != null) {
+            slots.set(ABILITIES + ability.ordinal(), 0L);
+        }
+    }
+
+    public boolean isEffectActive(UUID playerId, PassiveAbility ability) {
+        AtomicLongArray slots = records.get(playerId);
+        return slots != null && slots.get(ABILITIES + ability.ordinal()) > now();
+    }
+
+    /**
+     * Drops a quitting player's toggles, and their whole array if nothing else is running
+     */
+    public void evict(UUID playerId) {
+        AtomicLongArray slots = records.get(playerId);
+        if (slots == null) {
+            return;
+        }
+
+        for (int i = ABILITIES; i < slots.length(); i++) {
+            if (slots.get(i) == INDEFINITE) {
+                slots.set(i, 0L);
+            }
+        }
+        if (!isRunning(slots, now())) {
+            records.remove(playerId, slots);
+        }
+    }
+
+    /**
+     * Handles a slot's timeout, dropping the player's array if they are offline and nothing else is running
+     * @return false if the slot was cleared or set again since the timeout was scheduled
+     */
+    private boolean expire(UUID playerId, int index, long end) {
+        AtomicLongArray slots = records.get(playerId);
+        if (slots == null || slots.get(index) != end) {
+            return false;
+        }
+
+        if (Bukkit.getPlayer(playerId) == null && !isRunning(slots, now())) {
+            records.remove(playerId, slots);
+        }
+        return true;
+    }
+
+    public void clear() {
+        records.clear();
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    private AtomicLongArray record(UUID playerId) {
+        return records.computeIfAbsent(playerId, id -> new AtomicLongArray(ABILITIES * 2));
+    }
+
+    private static boolean isRunning(AtomicLongArray slots, long now) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
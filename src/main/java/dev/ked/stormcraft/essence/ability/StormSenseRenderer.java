@@ -0,0 +1,184 @@
+package dev.ked.stormcraft.essence.ability;
+
+import dev.ked.stormcraft.essence.storm.StormIndex;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws every player's Storm Sense trail from one shared task. Each run walks the sessions and
+ * points each player's particles away from their nearest storm, found through the {@link StormIndex}.
+ * The task only runs while someone has Storm Sense active.
+ *
+ * Rendering reuses a scratch location, so a run allocates nothing per player.
+ * Main thread only.
+ */
+public class StormSenseRenderer {
+    private static final int TRAIL_PARTICLES = 5;
+    private static final double TRAIL_SPACING = 2.0;
+
+    private final Plugin plugin;
+    private final StormIndex stormIndex;
+    private final int durationTicks;
+    private final int intervalTicks;
+    private final List<Session> sessions = new ArrayList<>();
+    private BukkitTask renderTask;
+
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    // Metrics
+    private long runs;
+    private long trailsDrawn;
+    private long lastRunMicros;
+    private long maxRunMicros;
+
+    private static final class Session {
+        private final Player player;
+        private final long endTick;
+
+        private Session(Player player, long endTick) {
+            this.player = player;
+            this.endTick = endTick;
+        }
+    }
+
+    public StormSenseRenderer(Plugin plugin, StormIndex stormIndex, int durationTicks, int intervalTicks) {
+        this.plugin = plugin;
+        this.stormIndex = stormIndex;
+        this.durationTicks = durationTicks;
+        this.intervalTicks = Math.max(1, intervalTicks);
+    }
+
+    /**
+     * Starts (or restarts) a player's trail for the configured duration
+     */
+    public void start(Player player) {
+        stop(player);
+        sessions.add(new Session(player, Bukkit.getCurrentTick() + (long) durationTicks));
+        if (renderTask == null) {
+            renderTask = Bukkit.getScheduler().runTaskTimer(plugin, this::render, 0L, intervalTicks);
+        }
+    }
+
+    public void stop(Player player) {
+        for (int i = 0; i < sessions.size(); i++) {
+            if (sessions.get(i).player.getUniqueId().equals(player.getUniqueId())) {
+                removeAt(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ends every trail and stops the task (call on disable)
+     */
+    public void shutdown() {
+        sessions.clear();
+        stopTask();
+    }
+
+    private void render() {
+        long start = System.nanoTime();
+        long now = Bukkit.getCurrentTick();
+        // -1 if Stormcraft isn't available: trails just show nothing
+        int stormCount = stormIndex.isAvailable() ? stormIndex.size() : -1;
+
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            Session session = sessions.get(i);
+            if (now >= session.endTick || !session.player.isOnline()) {
+                removeAt(i);
+                continue;
+            }
+
+            if (stormCount == 0) {
+                session.player.sendMessage(Component.text("No storms nearby").color(NamedTextColor.GRAY));
+                removeAt(i);
+                continue;
+            }
+
+            if (stormCount > 0) {
+                drawTrail(session.player);
+            }
+        }
+
+        if (sessions.isEmpty()) {
+            stopTask();
+        }
+
+        runs++;
+        lastRunMicros = (System.nanoTime() - start) / 1000;
+        maxRunMicros = Math.max(maxRunMicros, lastRunMicros);
+    }
+
+    /**
+     * Shows particles leading away from the player's nearest storm in their world
+     */
+    private void drawTrail(Player player) {
+        Location location = player.getLocation(scratch);
+        double x = location.getX();
+        double y = location.getY() + 1; // Eye level
+        double z = location.getZ();
+
+        int closest = stormIndex.nearest(location.getWorld(), x, z);
+        if (closest < 0) return;
+
+        // Escape direction (away from storm)
+        double dx = x - stormIndex.getX(closest);
+        double dy = y - stormIndex.getY(closest);
+        double dz = z - stormIndex.getZ(closest);
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length == 0) return;
+        double dirX = dx / length;
+        double dirY = dy / length;
+        double dirZ = dz / length;
+
+        for (int i = 1; i <= TRAIL_PARTICLES; i++) {
+            double step = i * TRAIL_SPACING;
+            player.spawnParticle(Particle.ELECTRIC_SPARK, x + dirX * step, y + dirY * step, z + dirZ * step,
+                    3, 0.2, 0.2, 0.2, 0.01);
+        }
+        trailsDrawn++;
+    }
+
+    private void removeAt(int index) {
+        // Order doesn't matter, so fill the gap with the last session
+        int last = sessions.size() - 1;
+        sessions.set(index, sessions.get(last));
+        sessions.remove(last);
+    }
+
+    private void stopTask() {
+        if (renderTask != null) {
+            renderTask.cancel();
+            renderTask = null;
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getTrailsDrawn() {
+        return trailsDrawn;
+    }
+
+    public long getLastRunMicros() {
+        return lastRunMicros;
+    }
+
+    public long getMaxRunMicros() {
+        return maxRunMicros;
+    }
+}
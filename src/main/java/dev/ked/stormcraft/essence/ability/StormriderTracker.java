@@ -0,0 +1,225 @@
+package dev.ked.stormcraft.essence.ability;
+
+import dev.ked.stormcraft.essence.storm.StormCoverage;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Flight state for each player with Stormrider on. Move events are only worked through when the
+ * player enters a new block or lands/leaves the ground; a storm tick catches storms moving onto or
+ * off players standing still. Flight and glide are only set when they actually change, since every
+ * setter sends the client a packet.
+ *
+ * Phases: {@link Phase#IN_STORM} (flight allowed), {@link Phase#AIRBORNE} outside a storm (no flight,
+ * gliding once falling) and {@link Phase#GROUNDED} outside a storm (neither).
+ * Main thread only.
+ */
+public class StormriderTracker {
+    private final Plugin plugin;
+    private final StormCoverage stormCoverage;
+    private final Map<UUID, State> states = new HashMap<>();
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private BukkitTask stormTask;
+
+    // Metrics
+    private long eventsProcessed;
+    private long eventsSkipped;
+    private long membershipPushes;
+    private long transitions;
+    private long settersSent;
+    private long settersSuppressed;
+
+    public enum Phase {
+        IN_STORM,
+        AIRBORNE,
+        GROUNDED
+    }
+
+    private static final class State {
+        private final Player player;
+        private World world;
+        private int blockX, blockY, blockZ;
+        private boolean onGround;
+        private boolean inStorm;
+        private Phase phase;
+
+        private State(Player player) {
+            this.player = player;
+        }
+    }
+
+    public StormriderTracker(Plugin plugin, StormCoverage stormCoverage) {
+        this.plugin = plugin;
+        this.stormCoverage = stormCoverage;
+    }
+
+    /**
+     * Starts tracking a player who turned Stormrider on, applying their current state straight away
+     */
+    public void track(Player player) {
+        State state = new State(player);
+        states.put(player.getUniqueId(), state);
+        update(state, player.getLocation(scratch));
+
+        if (stormTask == null) {
+            stormTask = Bukkit.getScheduler().runTaskTimer(plugin, this::checkStorms, 1L, 1L);
+        }
+    }
+
+    public void untrack(Player player) {
+        states.remove(player.getUniqueId());
+        if (states.isEmpty() && stormTask != null) {
+            stormTask.cancel();
+            stormTask = null;
+        }
+    }
+
+    /**
+     * Handles a move event, skipping it unless the player entered a new block or landed/took off
+     */
+    public void onMove(Player player, Location to) {
+        State state = states.get(player.getUniqueId());
+        if (state == null) {
+            return;
+        }
+
+        if (to.getWorld() == state.world && to.getBlockX() == state.blockX && to.getBlockY() == state.blockY
+                && to.getBlockZ() == state.blockZ && player.isOnGround() == state.onGround) {
+            eventsSkipped++;
+            return;
+        }
+
+        eventsProcessed++;
+        update(state, to);
+    }
+
+    /**
+     * The storm tick: re-checks players against this tick's storms, for storms moving while they stand still
+     */
+    private void checkStorms() {
+        for (State state : states.values()) {
+            Location location = state.player.getLocation(scratch);
+            if (stormCoverage.isCovered(location.getWorld(), location.getX(), location.getZ()) != state.inStorm) {
+                membershipPushes++;
+                update(state, location);
+            }
+        }
+    }
+
+    private void update(State state, Location location) {
+        Player player = state.player;
+        state.world = location.getWorld();
+        state.blockX = location.getBlockX();
+        state.blockY = location.getBlockY();
+        state.blockZ = location.getBlockZ();
+        state.onGround = player.isOnGround();
+        state.inStorm = stormCoverage.isCovered(state.world, location.getX(), location.getZ());
+
+        // Only survival/adventure players are affected
+        if (player.getGameMode() != GameMode.SURVIVAL && player.getGameMode() != GameMode.ADVENTURE) {
+            return;
+        }
+
+        Phase phase = state.inStorm ? Phase.IN_STORM : state.onGround ? Phase.GROUNDED : Phase.AIRBORNE;
+        if (phase != state.phase) {
+            state.phase = phase;
+            transitions++;
+        }
+
+        switch (phase) {
+            // In storm: Enable full flight
+            case IN_STORM -> setAllowFlight(player, true);
+            case AIRBORNE -> {
+                // Outside storm: Enable gliding only (no creative flight)
+                setFlying(player, false);
+                if (player.getFallDistance() > 0) {
+                    setGliding(player, true);
+                }
+            }
+            case GROUNDED -> {
+                // Disable flight ability when on ground
+                setFlying(player, false);
+                setAllowFlight(player, false);
+                setGliding(player, false);
+            }
+        }
+    }
+
+    private void setAllowFlight(Player player, boolean allow) {
+        if (player.getAllowFlight() == allow) {
+            settersSuppressed++;
+            return;
+        }
+        player.setAllowFlight(allow);
+        settersSent++;
+    }
+
+    private void setFlying(Player player, boolean flying) {
+        if (player.isFlying() == flying) {
+            settersSuppressed++;
+            return;
+        }
+        player.setFlying(flying);
+        settersSent++;
+    }
+
+    private void setGliding(Player player, boolean gliding) {
+        if (player.isGliding() == gliding) {
+            settersSuppressed++;
+            return;
+        }
+        player.setGliding(gliding);
+        settersSent++;
+    }
+
+    /**
+     * Stops tracking everyone (call on disable)
+     */
+    public void shutdown() {
+        states.clear();
+        if (stormTask != null) {
+            stormTask.cancel();
+            stormTask = null;
+        }
+    }
+
+    public int getTrackedCount() {
+        return states.size();
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public long getEventsSkipped() {
+        return eventsSkipped;
+    }
+
+    /**
+     * @return Times the storm tick found a storm had moved onto or off a player
+     */
+    public long getMembershipPushes() {
+        return membershipPushes;
+    }
+
+    public long getTransitions() {
+        return transitions;
+    }
+
+    public long getSettersSent() {
+        return settersSent;
+    }
+
+    public long getSettersSuppressed() {
+        return settersSuppressed;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.ked.stormcraft.essence.api.events;
+
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fired on the main thread on the tick an online player's timed ability effect
+ * (e.g. Eye of the Storm immunity) runs out. Not fired for toggles switched off by hand.
+ */
+public class EssenceEffectExpiredEvent extends Event {
+    private static final HandlerList handlers = new HandlerList();
+    private final Player player;
+    private final PassiveAbility ability;
+
+    public EssenceEffectExpiredEvent(Player player, PassiveAbility ability) {
+        this.player = player;
+        this.ability = ability;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public PassiveAbility getAbility() {
+        return ability;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return handlers;
+    }
+
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
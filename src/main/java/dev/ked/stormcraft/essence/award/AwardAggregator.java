@@ -0,0 +1,166 @@
+package dev.ked.stormcraft.essence.award;
+
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
+import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.UUID;
+
+/**
+ * Sums essence awards per player and applies them once per window: one economy deposit and one
+ * SEL update per player per window, however many award events Stormcraft fired in it.
+ *
+ * Whether passives block SEL gain is checked as each award arrives, so toggling passives
+ * mid-window doesn't change what awards already received count towards SEL. Awards that arrive
+ * before the player's record is cached are checked once at the end of the window instead.
+ * Main thread only.
+ */
+public class AwardAggregator {
+    private final Plugin plugin;
+    private final PlayerDataManager playerDataManager;
+    private final EssenceEconomy economy;
+    private final int windowTicks;
+    private final UuidDoubleAccumulator pending = new UuidDoubleAccumulator(64);
+    // The part of each player's pending essence earned with no passives active
+    private final UuidDoubleAccumulator pendingSel = new UuidDoubleAccumulator(64);
+    // The part earned while the player's record was still loading, checked at flush
+    private final UuidDoubleAccumulator pendingUnchecked = new UuidDoubleAccumulator(16);
+    private BukkitTask flushTask;
+
+    // Metrics
+    private long events;
+    private long deposits;
+    private long flushes;
+
+    public AwardAggregator(Plugin plugin, PlayerDataManager playerDataManager, EssenceEconomy economy, int windowTicks) {
+        this.plugin = plugin;
+        this.playerDataManager = playerDataManager;
+        this.economy = economy;
+        this.windowTicks = Math.max(1, windowTicks);
+    }
+
+    /**
+     * Starts flushing once per window
+     */
+    public void start() {
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flushAll, windowTicks, windowTicks);
+    }
+
+    /**
+     * Adds an award to the player's total for this window
+     */
+    public void add(UUID playerId, double essence) {
+        pending.add(playerId, essence);
+        events++;
+
+        PlayerEssenceData data = playerDataManager.getCachedPlayerData(playerId);
+        if (data == null) {
+            pendingUnchecked.add(playerId, essence);
+        } else if (!data.hasActivePassives()) {
+            // Block essence gain if player has active passives
+            pendingSel.add(playerId, essence);
+        }
+    }
+
+    /**
+     * Applies everything pending
+     */
+    public void flushAll() {
+        if (pending.isEmpty() && pendingSel.isEmpty() && pendingUnchecked.isEmpty()) {
+            return;
+        }
+
+        flushes++;
+        pending.drain(this::deposit);
+        pendingSel.drain(this::addSel);
+        pendingUnchecked.drain(this::addSelIfEligible);
+    }
+
+    /**
+     * Applies a single player's pending awards (call on quit, before their record is saved)
+     */
+    public void flush(UUID playerId) {
+        double essence = pending.remove(playerId);
+        if (essence != 0) {
+            deposit(playerId, essence);
+        }
+        double selEssence = pendingSel.remove(playerId);
+        if (selEssence != 0) {
+            addSel(playerId, selEssence);
+        }
+        double uncheckedEssence = pendingUnchecked.remove(playerId);
+        if (uncheckedEssence != 0) {
+            addSelIfEligible(playerId, uncheckedEssence);
+        }
+    }
+
+    /**
+     * Flushes what is left and stops the flush task (call on disable, before the economy shuts down).
+     * SEL is applied synchronously, since tasks can't be scheduled while the plugin is disabling.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+
+        pending.drain(this::deposit);
+        pendingSel.drain((playerId, essence) ->
+                playerDataManager.getLoadedPlayerData(playerId).addStormEssence(essence));
+        pendingUnchecked.drain((playerId, essence) -> {
+            PlayerEssenceData data = playerDataManager.getLoadedPlayerData(playerId);
+            if (!data.hasActivePassives()) {
+                data.addStormEssence(essence);
+            }
+        });
+    }
+
+    private void deposit(UUID playerId, double essence) {
+        deposits++;
+
+        // Award essence via the economy (queued - failures are logged by the economy)
+        economy.deposit(Bukkit.getOfflinePlayer(playerId), essence);
+    }
+
+    private void addSel(UUID playerId, double essence) {
+        // Track essence for SEL progression; passives were already checked as it arrived
+        playerDataManager.withPlayerData(playerId, data -> data.addStormEssence(essence));
+    }
+
+    private void addSelIfEligible(UUID playerId, double essence) {
+        // One check per player per window, against their passives once the record has loaded
+        playerDataManager.withPlayerData(playerId, data -> {
+            if (!data.hasActivePassives()) {
+                data.addStormEssence(essence);
+            }
+        });
+    }
+
+    public int getWindowTicks() {
+        return windowTicks;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return Award events received
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return Deposits made for them (one per player per window)
+     */
+    public long getDeposits() {
+        return deposits;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+}
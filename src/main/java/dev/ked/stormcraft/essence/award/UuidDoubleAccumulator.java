@@ -0,0 +1,160 @@
+package dev.ked.stormcraft.essence.award;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Open-addressed UUID to double sum map with no boxing: keys are stored as their two longs and
+ * values in a primitive array, so adding to an existing entry allocates nothing.
+ * Not thread-safe.
+ */
+public class UuidDoubleAccumulator {
+    private static final float MAX_LOAD = 0.5f;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private double[] values;
+    private boolean[] used;
+    private int size;
+
+    public UuidDoubleAccumulator(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds to a player's running total, creating it at zero if absent
+     */
+    public void add(UUID key, double amount) {
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        int index = indexOf(most, least);
+        if (used[index]) {
+            values[index] += amount;
+            return;
+        }
+
+        used[index] = true;
+        mostBits[index] = most;
+        leastBits[index] = least;
+        values[index] = amount;
+        if (++size > used.length * MAX_LOAD) {
+            resize(used.length * 2);
+        }
+    }
+
+    /**
+     * Removes a player's total
+     * @return The total, or 0 if there was none
+     */
+    public double remove(UUID key) {
+        int index = indexOf(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (!used[index]) {
+            return 0.0;
+        }
+
+        double value = values[index];
+        deleteAt(index);
+        return value;
+    }
+
+    /**
+     * Hands every total to the consumer and empties the map, keeping its capacity
+     */
+    public void drain(ObjDoubleConsumer<UUID> consumer) {
+        if (size == 0) {
+            return;
+        }
+
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                consumer.accept(new UUID(mostBits[i], leastBits[i]), values[i]);
+            }
+        }
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The slot holding the key, or the empty slot where it would go
+     */
+    private int indexOf(long most, long least) {
+        int mask = used.length - 1;
+        int index = hash(most, least) & mask;
+        while (used[index] && (mostBits[index] != most || leastBits[index] != least)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Backward-shift deletion, so lookups never need tombstones
+     */
+    private void deleteAt(int index) {
+        int mask = used.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = hash(mostBits[next], leastBits[next]) & mask;
+            // Move the entry into the gap unless its home lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                mostBits[gap] = mostBits[next];
+                leastBits[gap] = leastBits[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMost = mostBits;
+        long[] oldLeast = leastBits;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldMost[i], oldLeast[i]);
+                used[index] = true;
+                mostBits[index] = oldMost[i];
+                leastBits[index] = oldLeast[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
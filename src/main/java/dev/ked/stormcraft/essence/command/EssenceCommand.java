@@ -2,12 +2,28 @@ package dev.ked.stormcraft.essence.command;
 
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
 import dev.ked.stormcraft.essence.ability.AbilityManager;
+import dev.ked.stormcraft.essence.ability.StormSenseRenderer;
+import dev.ked.stormcraft.essence.ability.StormriderTracker;
+import dev.ked.stormcraft.essence.award.AwardAggregator;
 import dev.ked.stormcraft.essence.config.EssenceConfig;
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
+import dev.ked.stormcraft.essence.economy.LatencyHistogram;
 import dev.ked.stormcraft.essence.model.PassiveAbility;
 import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+import dev.ked.stormcraft.essence.persistence.OfflineDataCache;
 import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import dev.ked.stormcraft.essence.persistence.StartupLoadReport;
+import dev.ked.stormcraft.essence.persistence.WriteBehindQueue;
+import dev.ked.stormcraft.essence.persistence.store.CodecBenchmark;
+import dev.ked.stormcraft.essence.scheduler.HierarchicalTimingWheel;
+import dev.ked.stormcraft.essence.scheduler.TickSpreadScheduler;
+import dev.ked.stormcraft.essence.storm.StormCoverage;
+import dev.ked.stormcraft.essence.storm.StormIndex;
+import dev.ked.stormcraft.essence.storm.StormSnapshotService;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -23,6 +39,8 @@ import java.util.stream.Collectors;
  * Command handler for /essence
  */
 public class EssenceCommand implements CommandExecutor, TabCompleter {
+    private static final List<String> ADMIN_SUBCOMMANDS = List.of("stats", "top", "benchmark", "reload");
+
     private final StormcraftEssencePlugin plugin;
     private final PlayerDataManager playerDataManager;
     private final AbilityManager abilityManager;
@@ -40,6 +58,22 @@ public class EssenceCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // Admin diagnostics work from console too
+        if (args.length > 0 && ADMIN_SUBCOMMANDS.contains(args[0].toLowerCase())) {
+            if (!sender.hasPermission("stormcraft.essence.admin")) {
+                sender.sendMessage(Component.text("You don't have permission to do that.").color(net.kyori.adventure.text.format.NamedTextColor.RED));
+                return true;
+            }
+            String argument = args.length > 1 ? args[1] : null;
+            switch (args[0].toLowerCase()) {
+                case "stats" -> showStats(sender);
+                case "top" -> showTop(sender, argument);
+                case "benchmark" -> runBenchmark(sender, argument);
+                case "reload" -> reload(sender);
+            }
+            return true;
+        }
+
         if (!(sender instanceof Player player)) {
             sender.sendMessage("This command can only be used by players.");
             return true;
@@ -79,7 +113,12 @@ public class EssenceCommand implements CommandExecutor, TabCompleter {
 
     private void showStatus(Player player) {
         PlayerEssenceData data = playerDataManager.getPlayerData(player);
-        double balance = plugin.getEconomy().getBalance(player);
+        if (data.isPlaceholder()) {
+            player.sendMessage(parseMessage(config.getMessage("prefix") + config.getMessage("data_loading")));
+            return;
+        }
+        // Already net of drain accrued since it was last withdrawn
+        double balance = plugin.getEssenceEconomy().getBalance(player);
         double drainRate = abilityManager.calculateDrainRate(data);
 
         String passivesList = data.hasActivePassives()
@@ -121,6 +160,10 @@ public class EssenceCommand implements CommandExecutor, TabCompleter {
         }
 
         PlayerEssenceData data = playerDataManager.getPlayerData(player);
+        if (data.isPlaceholder()) {
+            player.sendMessage(parseMessage(config.getMessage("prefix") + config.getMessage("data_loading")));
+            return;
+        }
         int sel = data.getStormExposureLevel();
         int required = config.getUnlockLevel(ability);
         boolean unlocked = sel >= required;
@@ -157,12 +200,199 @@ public class EssenceCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void showStats(CommandSender sender) {
+        sender.sendMessage(Component.text("━━━ Storm Essence Stats ━━━").color(net.kyori.adventure.text.format.NamedTextColor.GOLD));
+
+        StartupLoadReport startup = playerDataManager.getStartupLoadReport();
+        if (startup != null) {
+            sender.sendMessage(Component.text(String.format("Startup load (%s): %d of %d records in %dms, saved ~%dms and ~%d KB vs eager",
+                    startup.mode(), startup.recordsLoaded(), startup.recordsOnDisk(), startup.loadMillis(),
+                    startup.estimatedSavedMillis(), startup.estimatedSavedBytes() / 1024))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        }
+
+        sender.sendMessage(Component.text("Storage: " + playerDataManager.getStore().getStatus())
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        OfflineDataCache offlineCache = playerDataManager.getOfflineCache();
+        long lookups = offlineCache.getHits() + offlineCache.getMisses();
+        sender.sendMessage(Component.text(String.format("Cache: %d pinned, %d/%d offline, %d hits / %d misses (%.1f%%), %d evicted, %d expired",
+                playerDataManager.getPinnedCount(), offlineCache.size(), offlineCache.getMaxSize(),
+                offlineCache.getHits(), offlineCache.getMisses(),
+                lookups > 0 ? 100.0 * offlineCache.getHits() / lookups : 0.0,
+                offlineCache.getEvictions(), offlineCache.getExpirations()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        sender.sendMessage(Component.text(String.format("Prefetch: %d async loads, %d placeholders served, %d main-thread loads",
+                playerDataManager.getPrefetches(), playerDataManager.getPlaceholdersServed(), playerDataManager.getMainThreadLoads()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        sender.sendMessage(Component.text(String.format("Drain: %d of %d online players draining, %d withdrawals, %d wheel visits, %d run-out timers, %d ran out",
+                abilityManager.getDrainingCount(), Bukkit.getOnlinePlayers().size(), abilityManager.getDrainSettlements(),
+                abilityManager.getDrainVisits(), abilityManager.getRunOutTimersFired(), abilityManager.getDrainExhaustions()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        for (TickSpreadScheduler.SpreadTask<?> task : plugin.getTickScheduler().getTasks()) {
+            sender.sendMessage(Component.text(String.format("Spread %s: %d entries over %d ticks, fullest slot %d (peak %d), last slot %dus, worst %dus",
+                    task.getName(), task.size(), task.getPeriodTicks(), task.getMaxSlotLoad(), task.getPeakSlotEntries(),
+                    task.getLastSlotMicros(), task.getMaxSlotMicros()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
+        }
+
+        HierarchicalTimingWheel expiries = plugin.getExpiryScheduler().getWheel();
+        sender.sendMessage(Component.text(String.format("Expiries: %d pending, %d scheduled, %d fired, %d cancelled, %d cascades",
+                expiries.getPending(), expiries.getScheduled(), expiries.getFired(), expiries.getCancelled(), expiries.getCascaded()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        StormSenseRenderer stormSense = plugin.getActiveAbilityManager().getStormSenseRenderer();
+        sender.sendMessage(Component.text(String.format("Storm Sense: %d active, %d render runs drew %d trails, last run %dus, worst %dus",
+                stormSense.getSessionCount(), stormSense.getRuns(), stormSense.getTrailsDrawn(),
+                stormSense.getLastRunMicros(), stormSense.getMaxRunMicros()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        StormSnapshotService snapshots = plugin.getStormSnapshots();
+        sender.sendMessage(Component.text(String.format("Storm snapshots: %d taken, last %dus, avg %.1fus, worst %dus",
+                snapshots.getCaptures(), snapshots.getLastCaptureMicros(), snapshots.getAverageCaptureMicros(), snapshots.getMaxCaptureMicros()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        StormIndex stormIndex = plugin.getStormIndex();
+        sender.sendMessage(Component.text(String.format("Storm index: %d storms in %d worlds, %d rebuilds, %d queries visited %d storms",
+                stormIndex.size(), stormIndex.getWorldCount(), stormIndex.getRebuilds(), stormIndex.getQueries(), stormIndex.getStormsVisited()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        StormCoverage coverage = plugin.getStormCoverage();
+        sender.sendMessage(Component.text(String.format("Storm coverage: %d chunks, %d footprints drawn, %d checks (%d by raster alone), %d exact tests",
+                coverage.getCellCount(), coverage.getRedraws(), coverage.getLookups(), coverage.getRasterAnswers(), coverage.getExactTests()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        StormriderTracker stormrider = plugin.getActiveAbilityManager().getStormriderTracker();
+        long stormriderEvents = stormrider.getEventsProcessed() + stormrider.getEventsSkipped();
+        sender.sendMessage(Component.text(String.format("Stormrider: %d tracked, %d of %d move events processed (%.1f%% skipped), %d storm pushes, %d phase changes, %d setters sent, %d suppressed",
+                stormrider.getTrackedCount(), stormrider.getEventsProcessed(), stormriderEvents,
+                stormriderEvents > 0 ? 100.0 * stormrider.getEventsSkipped() / stormriderEvents : 0.0,
+                stormrider.getMembershipPushes(), stormrider.getTransitions(), stormrider.getSettersSent(), stormrider.getSettersSuppressed()))
+                .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+
+        AwardAggregator awards = plugin.getAwardAggregator();
+        if (awards != null) {
+            sender.sendMessage(Component.text(String.format("Awards: %d events coalesced into %d deposits over %d flushes (every %d ticks), %d pending",
+                    awards.getEvents(), awards.getDeposits(), awards.getFlushes(), awards.getWindowTicks(), awards.getPendingCount()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        }
+
+        EssenceEconomy economy = plugin.getEssenceEconomy();
+        sender.sendMessage(Component.text(String.format("Economy (%s): breaker %s, %d trips, %d failures, %d timeouts, %d refused while open, %d withdrawals revoked",
+                economy.isInMemory() ? "native" : economy.isAsync() ? "async" : "sync", economy.isOpen() ? "OPEN" : "closed", economy.getBreakerTrips(),
+                economy.getFailures(), economy.getTimeouts(), economy.getRejectedWhileOpen(), economy.getReservationsRevoked()))
+                .color(economy.isOpen() ? net.kyori.adventure.text.format.NamedTextColor.RED : net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        if (!economy.isInMemory()) {
+            sender.sendMessage(Component.text(String.format("  Balance views: %d online, %d offline",
+                    economy.getAccountCount(), economy.getOfflineViewCount()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
+        }
+        for (EssenceEconomy.Operation operation : EssenceEconomy.Operation.values()) {
+            LatencyHistogram latency = economy.getLatency(operation);
+            sender.sendMessage(Component.text(String.format("  %s: %d calls, p50 <%dus, p99 <%dus, max %dus",
+                    operation.name().toLowerCase(), latency.getCount(), latency.getPercentileMicros(50),
+                    latency.getPercentileMicros(99), latency.getMaxMicros()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
+        }
+
+        if (config.isAutosaveEnabled()) {
+            sender.sendMessage(Component.text(String.format("Autosave: every %ds, %d cycles saved %d records, last cycle %d in %dms, backlog %d",
+                    config.getAutosaveIntervalSeconds(), playerDataManager.getAutosaveCycles(), playerDataManager.getAutosavedRecords(),
+                    playerDataManager.getLastAutosaveRecords(), playerDataManager.getLastAutosaveMillis(), playerDataManager.getAutosaveBacklog()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        } else {
+            sender.sendMessage(Component.text("Autosave: disabled").color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
+        }
+
+        WriteBehindQueue queue = playerDataManager.getWriteBehindQueue();
+        if (queue == null) {
+            sender.sendMessage(Component.text(String.format("Write-behind: disabled (saves are synchronous), %d failed and kept dirty",
+                    playerDataManager.getFailedSaves()))
+                    .color(playerDataManager.getFailedSaves() > 0 ? net.kyori.adventure.text.format.NamedTextColor.RED : net.kyori.adventure.text.format.NamedTextColor.GRAY));
+        } else {
+            sender.sendMessage(Component.text(String.format("Write-behind: depth %d/%d (peak %d), queued %d, coalesced %d, sync fallbacks %d",
+                    queue.getDepth(), queue.getCapacity(), queue.getHighWaterMark(),
+                    queue.getEnqueued(), queue.getCoalesced(), queue.getRejected()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text(String.format("Write-behind: flushed %d records in %d batches, last flush %dms, %d failed (requeued or kept dirty)",
+                    queue.getFlushedRecords(), queue.getFlushedBatches(), queue.getLastFlushMillis(), queue.getFailedRecords()))
+                    .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        }
+    }
+
+    private void showTop(CommandSender sender, String limitArg) {
+        int limit = 10;
+        if (limitArg != null) {
+            try {
+                limit = Math.max(1, Math.min(100, Integer.parseInt(limitArg)));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(Component.text("Usage: /essence top [count]").color(net.kyori.adventure.text.format.NamedTextColor.RED));
+                return;
+            }
+        }
+
+        playerDataManager.getTopByEssence(limit, top -> {
+            sender.sendMessage(Component.text("━━━ Top Storm Essence ━━━").color(net.kyori.adventure.text.format.NamedTextColor.GOLD));
+            int rank = 1;
+            for (PlayerDataSnapshot entry : top) {
+                String name = Bukkit.getOfflinePlayer(entry.playerId()).getName();
+                PlayerEssenceData data = entry.toPlayerData();
+                sender.sendMessage(Component.text(String.format("%d. %s - %.0f essence (SEL %d)",
+                        rank++, name != null ? name : entry.playerId().toString(),
+                        entry.totalStormEssence(), data.getStormExposureLevel()))
+                        .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+            }
+        });
+    }
+
+    private void reload(CommandSender sender) {
+        config.loadConfig();
+        // Drain rates are fixed per session, so charge the old rate up to now and restart at the new one
+        abilityManager.restartDrainSessions();
+        sender.sendMessage(Component.text("Config reloaded. Storage, thread and interval settings apply after a restart.")
+                .color(net.kyori.adventure.text.format.NamedTextColor.GREEN));
+    }
+
+    private void runBenchmark(CommandSender sender, String recordsArg) {
+        int records = 10000;
+        if (recordsArg != null) {
+            try {
+                records = Math.max(100, Math.min(1_000_000, Integer.parseInt(recordsArg)));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(Component.text("Usage: /essence benchmark [records]").color(net.kyori.adventure.text.format.NamedTextColor.RED));
+                return;
+            }
+        }
+
+        int recordCount = records;
+        sender.sendMessage(Component.text("Benchmarking player data formats with " + recordCount + " records...").color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<CodecBenchmark.Result> results = CodecBenchmark.run(plugin, recordCount);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                for (CodecBenchmark.Result result : results) {
+                    sender.sendMessage(Component.text(String.format("%s: encode %,.0f/s, decode %,.0f/s, %.1f bytes/player",
+                            result.format(), result.encodesPerSecond(), result.decodesPerSecond(), result.bytesPerRecord()))
+                            .color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+                }
+            });
+        });
+    }
+
     private void showHelp(Player player) {
         player.sendMessage(Component.text("━━━ Storm Essence Commands ━━━").color(net.kyori.adventure.text.format.NamedTextColor.GOLD));
         player.sendMessage(Component.text("/essence - Show your status").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
         player.sendMessage(Component.text("/essence toggle <ability> - Toggle an ability on/off").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
         player.sendMessage(Component.text("/essence info [ability] - View ability information").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
         player.sendMessage(Component.text("/essence help - Show this help").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        if (player.hasPermission("stormcraft.essence.admin")) {
+            player.sendMessage(Component.text("/essence stats - Show performance and persistence stats").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+            player.sendMessage(Component.text("/essence top [count] - Show players with the most storm essence").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+            player.sendMessage(Component.text("/essence benchmark [records] - Compare player data format speed and size").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+            player.sendMessage(Component.text("/essence reload - Reload ability and message settings").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
+        }
     }
 
     private PassiveAbility parseAbilityName(String name) {
@@ -181,7 +411,11 @@ public class EssenceCommand implements CommandExecutor, TabCompleter {
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
-            return Arrays.asList("status", "toggle", "info", "help").stream()
+            List<String> subcommands = new ArrayList<>(Arrays.asList("status", "toggle", "info", "help"));
+            if (sender.hasPermission("stormcraft.essence.admin")) {
+                subcommands.addAll(ADMIN_SUBCOMMANDS);
+            }
+            return subcommands.stream()
                     .filter(s -> s.startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
         }
@@ -2,9 +2,9 @@ package dev.ked.stormcraft.essence.command;
 
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
 import dev.ked.stormcraft.essence.crafting.EssenceItem;
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Sound;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -16,10 +16,10 @@ import org.bukkit.entity.Player;
  */
 public class EssenceConvertCommand implements CommandExecutor {
     private final StormcraftEssencePlugin plugin;
-    private final Economy economy;
+    private final EssenceEconomy economy;
     private final double conversionRate; // How much vault essence = 1 item essence
 
-    public EssenceConvertCommand(StormcraftEssencePlugin plugin, Economy economy, double conversionRate) {
+    public EssenceConvertCommand(StormcraftEssencePlugin plugin, EssenceEconomy economy, double conversionRate) {
         this.plugin = plugin;
         this.economy = economy;
         this.conversionRate = conversionRate;
@@ -55,15 +55,17 @@ public class EssenceConvertCommand implements CommandExecutor {
         // Calculate vault cost
         double vaultCost = amount * conversionRate;
 
-        if (!economy.has(player, vaultCost)) {
+        // Reserve and withdraw essence (the provider call finishes in the background)
+        if (!economy.tryWithdraw(player, vaultCost)) {
+            if (economy.isOpen()) {
+                player.sendMessage(Component.text("Essence is unavailable right now, try again shortly", NamedTextColor.RED));
+                return true;
+            }
             player.sendMessage(Component.text("Insufficient essence! Need " + String.format("%.1f", vaultCost) +
                 ", have " + String.format("%.1f", economy.getBalance(player)), NamedTextColor.RED));
             return true;
         }
 
-        // Withdraw essence
-        economy.withdrawPlayer(player, vaultCost);
-
         // Give physical essence item
         player.getInventory().addItem(EssenceItem.create(plugin, amount));
 
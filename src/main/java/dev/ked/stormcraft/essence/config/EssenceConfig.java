@@ -13,6 +13,7 @@ import java.util.Map;
 public class EssenceConfig {
     private final StormcraftEssencePlugin plugin;
     private FileConfiguration config;
+    private int version; // Bumped on every load, so values cached from the old config can tell they're stale
 
     // Ability unlock levels
     private final Map<PassiveAbility, Integer> unlockLevels = new HashMap<>();
@@ -27,6 +28,20 @@ public class EssenceConfig {
     private double drainPerTenLevels;
     private double multiPassiveMultiplier;
     private int drainIntervalTicks;
+    private int drainSettleIntervalSeconds;
+
+    // Award settings
+    private boolean awardCoalescingEnabled;
+    private int awardWindowTicks;
+
+    // Economy settings
+    private boolean nativeEconomy;
+    private boolean economyAsync;
+    private long economyTimeoutMillis;
+    private long economyBalanceRefreshSeconds;
+    private int economyBreakerThreshold;
+    private long economyBreakerOpenSeconds;
+    private int economyShutdownTimeoutSeconds;
 
     // Crafting settings
     private int compassEssenceCost;
@@ -36,6 +51,25 @@ public class EssenceConfig {
     private int baseTicksPerTier;
     private int minSELForInfusion;
 
+    // Persistence settings
+    private String storageType;
+    private long logSegmentSizeBytes;
+    private double logCompactionThreshold;
+    private boolean lazyLoadEnabled;
+    private int warmRecentDays;
+    private int offlineCacheMaxSize;
+    private boolean autosaveEnabled;
+    private int autosaveIntervalSeconds;
+    private int autosaveMaxRecordsPerCycle;
+    private long offlineCacheTtlSeconds;
+    private int prefetchThreads;
+    private long prefetchTimeoutMillis;
+    private boolean writeBehindEnabled;
+    private int writeBehindQueueCapacity;
+    private int writeBehindBatchSize;
+    private long writeBehindFlushIntervalMillis;
+    private int writeBehindShutdownTimeoutSeconds;
+
     public EssenceConfig(StormcraftEssencePlugin plugin) {
         this.plugin = plugin;
     }
@@ -44,6 +78,7 @@ public class EssenceConfig {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
         config = plugin.getConfig();
+        version++;
 
         // Load passive ability unlock levels
         unlockLevels.put(PassiveAbility.STORM_RESISTANCE, config.getInt("abilities.storm_resistance.unlock_level", 10));
@@ -75,6 +110,20 @@ public class EssenceConfig {
         drainPerTenLevels = config.getDouble("drain.sel_scaling.per_10_levels", 0.1);
         multiPassiveMultiplier = config.getDouble("drain.multi_passive_multiplier", 1.5);
         drainIntervalTicks = config.getInt("drain.drain_interval_ticks", 20);
+        drainSettleIntervalSeconds = config.getInt("drain.settle_interval_seconds", 30);
+
+        // Load award settings
+        awardCoalescingEnabled = config.getBoolean("awards.coalesce.enabled", true);
+        awardWindowTicks = config.getInt("awards.coalesce.window_ticks", 20);
+
+        // Load economy settings
+        nativeEconomy = config.getString("economy.provider", "vault").equalsIgnoreCase("native");
+        economyAsync = config.getBoolean("economy.async", true);
+        economyTimeoutMillis = config.getLong("economy.timeout_ms", 250L);
+        economyBalanceRefreshSeconds = config.getLong("economy.balance_refresh_seconds", 30L);
+        economyBreakerThreshold = config.getInt("economy.circuit_breaker.failure_threshold", 5);
+        economyBreakerOpenSeconds = config.getLong("economy.circuit_breaker.open_seconds", 30L);
+        economyShutdownTimeoutSeconds = config.getInt("economy.shutdown_timeout_seconds", 10);
 
         // Load crafting settings
         compassEssenceCost = config.getInt("crafting.compass_essence_cost", 100);
@@ -83,12 +132,38 @@ public class EssenceConfig {
         // Load infusion settings
         baseTicksPerTier = config.getInt("infusion.base_ticks_per_tier", 6000);
         minSELForInfusion = config.getInt("infusion.min_sel_for_infusion", 10);
+
+        // Load persistence settings
+        storageType = config.getString("persistence.store", "json").toLowerCase();
+        logSegmentSizeBytes = config.getLong("persistence.log.segment_size_kb", 4096L) * 1024L;
+        logCompactionThreshold = config.getDouble("persistence.log.compaction_threshold", 0.5);
+        lazyLoadEnabled = config.getString("persistence.load_mode", "lazy").equalsIgnoreCase("lazy");
+        warmRecentDays = config.getInt("persistence.warm_recent_days", 3);
+        offlineCacheMaxSize = config.getInt("persistence.offline_cache.max_size", 500);
+        offlineCacheTtlSeconds = config.getLong("persistence.offline_cache.ttl_seconds", 600L);
+        autosaveEnabled = config.getBoolean("persistence.autosave.enabled", true);
+        autosaveIntervalSeconds = config.getInt("persistence.autosave.interval_seconds", 60);
+        autosaveMaxRecordsPerCycle = config.getInt("persistence.autosave.max_records_per_cycle", 200);
+        prefetchThreads = config.getInt("persistence.prefetch.threads", 2);
+        prefetchTimeoutMillis = config.getLong("persistence.prefetch.timeout_ms", 2000L);
+        writeBehindEnabled = config.getBoolean("persistence.write_behind.enabled", true);
+        writeBehindQueueCapacity = config.getInt("persistence.write_behind.queue_capacity", 1024);
+        writeBehindBatchSize = config.getInt("persistence.write_behind.batch_size", 64);
+        writeBehindFlushIntervalMillis = config.getLong("persistence.write_behind.flush_interval_ms", 1000L);
+        writeBehindShutdownTimeoutSeconds = config.getInt("persistence.write_behind.shutdown_timeout_seconds", 10);
     }
 
     public int getUnlockLevel(PassiveAbility ability) {
         return unlockLevels.getOrDefault(ability, 999);
     }
 
+    /**
+     * @return Number of times the config has been loaded
+     */
+    public int getVersion() {
+        return version;
+    }
+
     public double getBaseDrainPerSecond() {
         return baseDrainPerSecond;
     }
@@ -109,6 +184,48 @@ public class EssenceConfig {
         return drainIntervalTicks;
     }
 
+    public int getDrainSettleIntervalSeconds() {
+        return drainSettleIntervalSeconds;
+    }
+
+    // Award getters
+    public boolean isAwardCoalescingEnabled() {
+        return awardCoalescingEnabled;
+    }
+
+    public int getAwardWindowTicks() {
+        return awardWindowTicks;
+    }
+
+    // Economy getters
+    public boolean isNativeEconomy() {
+        return nativeEconomy;
+    }
+
+    public boolean isEconomyAsync() {
+        return economyAsync;
+    }
+
+    public long getEconomyTimeoutMillis() {
+        return economyTimeoutMillis;
+    }
+
+    public long getEconomyBalanceRefreshSeconds() {
+        return economyBalanceRefreshSeconds;
+    }
+
+    public int getEconomyBreakerThreshold() {
+        return economyBreakerThreshold;
+    }
+
+    public long getEconomyBreakerOpenSeconds() {
+        return economyBreakerOpenSeconds;
+    }
+
+    public int getEconomyShutdownTimeoutSeconds() {
+        return economyShutdownTimeoutSeconds;
+    }
+
     // Storm Resistance ability stats
     public double getStormResistanceBaseReduction() {
         return config.getDouble("abilities.storm_resistance.base_reduction_percent", 5.0);
@@ -171,6 +288,75 @@ public class EssenceConfig {
         return minSELForInfusion;
     }
 
+    // Persistence getters
+    public String getStorageType() {
+        return storageType;
+    }
+
+    public long getLogSegmentSizeBytes() {
+        return logSegmentSizeBytes;
+    }
+
+    public double getLogCompactionThreshold() {
+        return logCompactionThreshold;
+    }
+
+    public boolean isLazyLoadEnabled() {
+        return lazyLoadEnabled;
+    }
+
+    public int getWarmRecentDays() {
+        return warmRecentDays;
+    }
+
+    public int getOfflineCacheMaxSize() {
+        return offlineCacheMaxSize;
+    }
+
+    public long getOfflineCacheTtlSeconds() {
+        return offlineCacheTtlSeconds;
+    }
+
+    public boolean isAutosaveEnabled() {
+        return autosaveEnabled;
+    }
+
+    public int getAutosaveIntervalSeconds() {
+        return autosaveIntervalSeconds;
+    }
+
+    public int getAutosaveMaxRecordsPerCycle() {
+        return autosaveMaxRecordsPerCycle;
+    }
+
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public long getPrefetchTimeoutMillis() {
+        return prefetchTimeoutMillis;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public int getWriteBehindQueueCapacity() {
+        return writeBehindQueueCapacity;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public long getWriteBehindFlushIntervalMillis() {
+        return writeBehindFlushIntervalMillis;
+    }
+
+    public int getWriteBehindShutdownTimeoutSeconds() {
+        return writeBehindShutdownTimeoutSeconds;
+    }
+
     // Active ability getters
     public int getEssenceCost(PassiveAbility ability) {
         return essenceCosts.getOrDefault(ability, 0);
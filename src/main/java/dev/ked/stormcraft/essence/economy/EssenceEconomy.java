@@ -0,0 +1,557 @@
+package dev.ked.stormcraft.essence.economy;
+
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Front for every essence balance read and write, so a slow Vault provider can't freeze the server.
+ *
+ * Provider calls run on a single economy thread (in submission order, so each response's balance
+ * accounts for every call before it). A local view of each player's balance is kept from those
+ * responses; withdrawals are checked against it and reserved immediately, so abilities and
+ * conversions are confirmed without waiting on the provider. Only a balance nobody has seen yet
+ * needs a blocking read, and that wait is bounded by the timeout.
+ *
+ * Offline players (placeholders, leaderboards) get a separate, bounded view: the last balance seen
+ * for them is served straight away and refreshed in the background once stale, so only the very
+ * first read for an offline player waits on the provider.
+ *
+ * Calls that fail or exceed the timeout count towards a circuit breaker. While it is open, blocking
+ * reads are skipped and new withdrawals are refused; deposits are still queued so no essence is lost.
+ *
+ * With the {@link NativeEssenceEconomy} every call is an in-memory update, so no view is kept:
+ * balances are read straight from the player's record and withdrawals are checked by the provider itself.
+ *
+ * Essence owed but not yet withdrawn (passive drain accrues lazily) is taken off every balance read
+ * and sufficiency check, so it can't be spent twice.
+ */
+public class EssenceEconomy {
+    public enum Operation { BALANCE, WITHDRAW, DEPOSIT }
+
+    private static final int MAX_OFFLINE_VIEWS = 512;
+
+    private final Plugin plugin;
+    private final Economy economy;
+    private final boolean inMemory; // Provider is the native store - no view or background thread needed
+    private final ExecutorService executor; // Null when provider calls run on the caller's thread
+    private final Executor callExecutor;
+    private final long timeoutNanos;
+    private final long refreshNanos;
+    private final int breakerThreshold;
+    private final long breakerOpenNanos;
+
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    // Last known balances of offline players, least recently read evicted first (guarded by itself)
+    private final Map<UUID, OfflineView> offlineViews = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, OfflineView> eldest) {
+            return size() > MAX_OFFLINE_VIEWS;
+        }
+    };
+    private volatile ToDoubleFunction<UUID> accruedDebt = playerId -> 0.0;
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+
+    // Circuit breaker
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openUntilNanos; // Only meaningful once tripped
+    private volatile boolean tripped; // Set after openUntilNanos, so readers that see it see the deadline
+
+    // Metrics
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong breakerTrips = new AtomicLong();
+    private final AtomicLong rejectedWhileOpen = new AtomicLong();
+    private final AtomicLong reservationsRevoked = new AtomicLong();
+
+    /**
+     * A player's balance as last reported by the provider, less withdrawals it hasn't confirmed yet
+     */
+    private static final class Account {
+        private double balance;
+        private double reserved;
+        private long refreshedAtNanos;
+        private boolean refreshing;
+        private boolean forgetPending; // Player quit with a withdrawal in flight - forget once it lands
+
+        private synchronized double available() {
+            return balance - reserved;
+        }
+    }
+
+    /**
+     * An offline player's balance as last reported by the provider
+     */
+    private static final class OfflineView {
+        private double balance;
+        private long refreshedAtNanos;
+        private boolean loaded;
+        private boolean refreshing;
+
+        private synchronized boolean startRefresh(long refreshNanos) {
+            if (refreshing || (loaded && System.nanoTime() - refreshedAtNanos < refreshNanos)) {
+                return false;
+            }
+            refreshing = true;
+            return true;
+        }
+
+        private synchronized void update(double newBalance) {
+            balance = newBalance;
+            refreshedAtNanos = System.nanoTime();
+            loaded = true;
+        }
+    }
+
+    public EssenceEconomy(Plugin plugin, Economy economy, boolean async, long timeoutMillis,
+                          long refreshSeconds, int breakerThreshold, long breakerOpenSeconds) {
+        this.plugin = plugin;
+        this.economy = economy;
+        this.inMemory = economy instanceof NativeEssenceEconomy;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, timeoutMillis));
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(Math.max(1, refreshSeconds));
+        this.breakerThreshold = Math.max(1, breakerThreshold);
+        this.breakerOpenNanos = TimeUnit.SECONDS.toNanos(Math.max(1, breakerOpenSeconds));
+
+        if (async && !inMemory) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Stormcraft-Essence-Economy");
+                thread.setDaemon(true);
+                return thread;
+            });
+            callExecutor = executor;
+        } else {
+            executor = null;
+            callExecutor = Runnable::run;
+        }
+
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Gets a player's spendable balance from the local view, refreshing it in the background if stale.
+     * Blocks (up to the timeout) only the first time a player's balance is needed.
+     * Safe to call from any thread.
+     */
+    public double getBalance(OfflinePlayer player) {
+        return getSettledBalance(player) - accruedDebt.applyAsDouble(player.getUniqueId());
+    }
+
+    private double getSettledBalance(OfflinePlayer player) {
+        if (inMemory) {
+            return economy.getBalance(player);
+        }
+
+        Account account = accounts.get(player.getUniqueId());
+        if (account == null) {
+            if (!player.isOnline()) {
+                // Offline lookups (placeholders, leaderboards) are served from the bounded offline view
+                return getOfflineBalance(player);
+            }
+            account = loadBlocking(player);
+            return account != null ? account.available() : 0.0;
+        }
+
+        refreshIfStale(player, account);
+        return account.available();
+    }
+
+    /**
+     * Serves an offline player's last known balance, refreshing it in the background if stale.
+     * Only the first read for a player waits (up to the timeout) for the provider.
+     */
+    private double getOfflineBalance(OfflinePlayer player) {
+        OfflineView view;
+        boolean created = false;
+        synchronized (offlineViews) {
+            view = offlineViews.get(player.getUniqueId());
+            if (view == null) {
+                view = new OfflineView();
+                offlineViews.put(player.getUniqueId(), view);
+                created = true;
+            }
+        }
+
+        if (isOpen()) {
+            if (created) {
+                rejectedWhileOpen.incrementAndGet();
+            }
+        } else if (view.startRefresh(refreshNanos)) {
+            CompletableFuture<Double> refresh = fetchOfflineBalance(player, view);
+            if (created) {
+                awaitBounded(refresh);
+            }
+        }
+
+        synchronized (view) {
+            return view.balance;
+        }
+    }
+
+    private CompletableFuture<Double> fetchOfflineBalance(OfflinePlayer player, OfflineView view) {
+        return call(Operation.BALANCE, () -> economy.getBalance(player)).handle((balance, error) -> {
+            synchronized (view) {
+                if (error == null) {
+                    view.update(balance);
+                }
+                view.refreshing = false;
+            }
+            return error == null ? balance : null;
+        });
+    }
+
+    /**
+     * Keeps an offline player's view current with a balance the provider just reported
+     */
+    private void updateOfflineView(UUID playerId, double balance) {
+        OfflineView view;
+        synchronized (offlineViews) {
+            view = offlineViews.get(playerId);
+        }
+        if (view != null) {
+            view.update(balance);
+        }
+    }
+
+    /**
+     * Sets where essence owed but not yet withdrawn is looked up (must be safe to call from any thread)
+     */
+    public void setAccruedDebt(ToDoubleFunction<UUID> accruedDebt) {
+        this.accruedDebt = accruedDebt;
+    }
+
+    /**
+     * Reserves and withdraws essence if the player can cover it. Returns immediately;
+     * the provider call happens in the background.
+     * @return false if the player can't afford it or the economy is unavailable
+     */
+    public boolean tryWithdraw(OfflinePlayer player, double amount) {
+        if (isOpen()) {
+            rejectedWhileOpen.incrementAndGet();
+            return false;
+        }
+
+        double owed = accruedDebt.applyAsDouble(player.getUniqueId());
+        if (inMemory) {
+            if (economy.getBalance(player) - owed < amount) {
+                return false;
+            }
+            // Runs inline; the provider's withdrawal is already an atomic check-and-take
+            EconomyResponse response = call(Operation.WITHDRAW, () -> economy.withdrawPlayer(player, amount)).join();
+            return response.transactionSuccess();
+        }
+
+        Account account = accounts.get(player.getUniqueId());
+        if (account == null) {
+            account = loadBlocking(player);
+            if (account == null) {
+                return false;
+            }
+        }
+
+        synchronized (account) {
+            if (account.available() - owed < amount) {
+                return false;
+            }
+            account.reserved += amount;
+        }
+
+        withdraw(player, amount, amount).thenAccept(response -> {
+            if (response == null || !response.transactionSuccess()) {
+                // Spent elsewhere before this reached the provider - the action already happened
+                reservationsRevoked.incrementAndGet();
+                plugin.getLogger().warning("Economy refused an essence withdrawal of " + amount + " for " + player.getUniqueId()
+                        + (response != null ? ": " + response.errorMessage : ""));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Withdraws essence in the background without a local sufficiency check
+     * @return The provider's response, or null if the call failed
+     */
+    public CompletableFuture<EconomyResponse> withdraw(OfflinePlayer player, double amount) {
+        return withdraw(player, amount, 0.0);
+    }
+
+    /**
+     * @param reservation Amount reserved for this withdrawal, released once the provider answers
+     */
+    private CompletableFuture<EconomyResponse> withdraw(OfflinePlayer player, double amount, double reservation) {
+        return call(Operation.WITHDRAW, () -> economy.withdrawPlayer(player, amount)).handle((response, error) -> {
+            Account account = accounts.get(player.getUniqueId());
+            if (account != null) {
+                boolean finishForget;
+                synchronized (account) {
+                    account.reserved = Math.max(0.0, account.reserved - reservation);
+                    if (response != null) {
+                        account.balance = response.balance;
+                        account.refreshedAtNanos = System.nanoTime();
+                    }
+                    finishForget = account.forgetPending && account.reserved == 0;
+                }
+                // Unless they have rejoined since
+                if (finishForget && !player.isOnline()) {
+                    forget(player.getUniqueId());
+                }
+            } else if (response != null) {
+                updateOfflineView(player.getUniqueId(), response.balance);
+            }
+            return error == null ? response : null;
+        });
+    }
+
+    /**
+     * Queues a deposit. Never refused, even while the breaker is open.
+     * @return The provider's response, or null if the call failed
+     */
+    public CompletableFuture<EconomyResponse> deposit(OfflinePlayer player, double amount) {
+        return call(Operation.DEPOSIT, () -> economy.depositPlayer(player, amount)).handle((response, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to deposit " + amount + " essence for " + player.getUniqueId() + ": " + error.getMessage());
+                return null;
+            }
+
+            Account account = accounts.get(player.getUniqueId());
+            if (account != null && response != null) {
+                synchronized (account) {
+                    account.balance = response.balance;
+                    account.refreshedAtNanos = System.nanoTime();
+                }
+            } else if (response != null) {
+                updateOfflineView(player.getUniqueId(), response.balance);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Reads the provider balance in the background and updates the local view
+     * @return The balance, or null if the call failed
+     */
+    public CompletableFuture<Double> fetchBalance(OfflinePlayer player) {
+        return call(Operation.BALANCE, () -> economy.getBalance(player)).handle((balance, error) -> {
+            if (error != null) {
+                return null;
+            }
+
+            Account account = accounts.computeIfAbsent(player.getUniqueId(), id -> new Account());
+            synchronized (account) {
+                // Withdrawals still reserved were queued after this read, so they stay reserved
+                account.balance = balance;
+                account.refreshedAtNanos = System.nanoTime();
+                account.refreshing = false;
+            }
+            return balance;
+        });
+    }
+
+    /**
+     * Drops the local view of a player's balance (call on quit). If a withdrawal is still in flight,
+     * the view is dropped once it lands. Its balance becomes their offline view, so offline reads
+     * start from the latest value.
+     */
+    public void forget(UUID playerId) {
+        Account account = accounts.get(playerId);
+        if (account != null) {
+            double balance;
+            synchronized (account) {
+                if (account.reserved != 0) {
+                    account.forgetPending = true;
+                    return;
+                }
+                accounts.remove(playerId);
+                balance = account.balance;
+            }
+
+            OfflineView view = new OfflineView();
+            view.update(balance);
+            synchronized (offlineViews) {
+                offlineViews.put(playerId, view);
+            }
+        }
+    }
+
+    /**
+     * @return Whether the circuit breaker is currently refusing calls
+     */
+    public boolean isOpen() {
+        // Until the first trip there is no deadline to compare against (nanoTime may be negative)
+        return tripped && System.nanoTime() - openUntilNanos < 0;
+    }
+
+    /**
+     * Waits for queued provider calls to finish (call on disable)
+     */
+    public void shutdown(int timeoutSeconds) {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Economy calls still pending after " + timeoutSeconds + "s - abandoning them");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Account loadBlocking(OfflinePlayer player) {
+        if (isOpen()) {
+            rejectedWhileOpen.incrementAndGet();
+            return null;
+        }
+
+        awaitBounded(fetchBalance(player));
+        return accounts.get(player.getUniqueId());
+    }
+
+    /**
+     * Waits up to the timeout for a provider read; the read keeps running and fills in its view if it is late
+     */
+    private void awaitBounded(CompletableFuture<?> read) {
+        try {
+            read.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            recordFailure();
+        } catch (ExecutionException e) {
+            // Already counted by call()
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refreshIfStale(OfflinePlayer player, Account account) {
+        synchronized (account) {
+            if (account.refreshing || System.nanoTime() - account.refreshedAtNanos < refreshNanos || isOpen()) {
+                return;
+            }
+            account.refreshing = true;
+        }
+
+        fetchBalance(player).thenAccept(balance -> {
+            if (balance == null) {
+                synchronized (account) {
+                    account.refreshing = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a provider call on the economy thread, timing it and feeding the circuit breaker
+     */
+    private <T> CompletableFuture<T> call(Operation operation, Supplier<T> providerCall) {
+        LatencyHistogram histogram = latencies.get(operation);
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = providerCall.get();
+                long elapsed = System.nanoTime() - start;
+                histogram.record(elapsed);
+                if (elapsed > timeoutNanos) {
+                    timeouts.incrementAndGet();
+                    recordFailure();
+                } else {
+                    consecutiveFailures.set(0);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                histogram.record(System.nanoTime() - start);
+                failures.incrementAndGet();
+                recordFailure();
+                throw e;
+            }
+        }, callExecutor);
+    }
+
+    private void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= breakerThreshold) {
+            consecutiveFailures.set(0);
+            openUntilNanos = System.nanoTime() + breakerOpenNanos;
+            tripped = true;
+            breakerTrips.incrementAndGet();
+            plugin.getLogger().warning("Economy provider is failing or slow - refusing essence spending for "
+                    + TimeUnit.NANOSECONDS.toSeconds(breakerOpenNanos) + "s");
+        }
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    /**
+     * @return Whether balances live in the native in-memory store
+     */
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @return Calls that took longer than the timeout, including blocking reads that gave up waiting
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getBreakerTrips() {
+        return breakerTrips.get();
+    }
+
+    /**
+     * @return Withdrawals and blocking reads refused while the breaker was open
+     */
+    public long getRejectedWhileOpen() {
+        return rejectedWhileOpen.get();
+    }
+
+    /**
+     * @return Optimistic withdrawals the provider later refused
+     */
+    public long getReservationsRevoked() {
+        return reservationsRevoked.get();
+    }
+
+    public int getAccountCount() {
+        return accounts.size();
+    }
+
+    public int getOfflineViewCount() {
+        synchronized (offlineViews) {
+            return offlineViews.size();
+        }
+    }
+}
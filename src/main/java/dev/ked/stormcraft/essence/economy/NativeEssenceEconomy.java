@@ -0,0 +1,305 @@
+package dev.ked.stormcraft.essence.economy;
+
+import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Essence balances held on each player's record instead of in an external economy.
+ * Every operation is an atomic update of the in-memory record; the dirty flag, autosave and
+ * write-behind queue persist it like any other change. Registered with Vault so other plugins
+ * (shops, scoreboards) read and spend the same balance the drain and abilities use.
+ *
+ * Offline players are read through the bounded offline cache, so repeated reads (balance
+ * leaderboards) never touch storage on the calling thread; writing to one loads it into the
+ * offline cache, which saves it on eviction. Every player implicitly has an account.
+ *
+ * Nothing here waits on a pending prefetch from the main thread: while a record is loading,
+ * reads see the placeholder's zero balance, withdrawals fail and deposits are applied once it lands.
+ */
+public class NativeEssenceEconomy implements Economy {
+    private static final String NAME = "Stormcraft-Essence";
+
+    private final Plugin plugin;
+    private final PlayerDataManager playerDataManager;
+
+    public NativeEssenceEconomy(Plugin plugin, PlayerDataManager playerDataManager) {
+        this.plugin = plugin;
+        this.playerDataManager = playerDataManager;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return plugin.isEnabled();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return false;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return 2;
+    }
+
+    @Override
+    public String format(double amount) {
+        return String.format("%.2f %s", amount, amount == 1.0 ? currencyNameSingular() : currencyNamePlural());
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return "Essence";
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return "Essence";
+    }
+
+    // Accounts
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return true; // A record is created on the first write
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return false; // Already exists implicitly
+    }
+
+    // Balances
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        PlayerEssenceData data = player.isOnline()
+                ? playerDataManager.getPlayerData(player.getUniqueId())
+                : playerDataManager.getOfflinePlayerData(player.getUniqueId());
+        return data.getBalance();
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return getBalance(player) >= amount;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        if (amount < 0) {
+            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Cannot withdraw negative funds");
+        }
+
+        PlayerEssenceData data = record(player);
+        if (data == null) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Essence data is still loading");
+        }
+        double balance = data.withdraw(amount);
+        if (Double.isNaN(balance)) {
+            return new EconomyResponse(0, data.getBalance(), EconomyResponse.ResponseType.FAILURE, "Insufficient essence");
+        }
+        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        if (amount < 0) {
+            return new EconomyResponse(0, getBalance(player), EconomyResponse.ResponseType.FAILURE, "Cannot deposit negative funds");
+        }
+
+        PlayerEssenceData data = record(player);
+        if (data == null) {
+            // A deposit can't fail, so apply it once the record lands; the balance isn't known yet
+            playerDataManager.withPlayerData(player.getUniqueId(), loaded -> loaded.deposit(amount));
+            return new EconomyResponse(amount, amount, EconomyResponse.ResponseType.SUCCESS, null);
+        }
+
+        double balance = data.deposit(amount);
+        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+
+    /**
+     * Gets the player's real record for writing
+     * @return null on the main thread while it is still being prefetched (never blocks on the loader)
+     */
+    private PlayerEssenceData record(OfflinePlayer player) {
+        PlayerEssenceData data = playerDataManager.getPlayerData(player.getUniqueId());
+        return data.isPlaceholder() ? null : data;
+    }
+
+    // Per-world and name-based variants (balances are global)
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean hasAccount(String playerName) {
+        return hasAccount(Bukkit.getOfflinePlayer(playerName));
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return hasAccount(playerName);
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return hasAccount(player);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public double getBalance(String playerName) {
+        return getBalance(Bukkit.getOfflinePlayer(playerName));
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return getBalance(playerName);
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        return getBalance(player);
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return getBalance(playerName) >= amount;
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return has(playerName, amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        return has(player, amount);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return withdrawPlayer(Bukkit.getOfflinePlayer(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return withdrawPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return withdrawPlayer(player, amount);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return depositPlayer(Bukkit.getOfflinePlayer(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return depositPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return depositPlayer(player, amount);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean createPlayerAccount(String playerName) {
+        return createPlayerAccount(Bukkit.getOfflinePlayer(playerName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return createPlayerAccount(playerName);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return createPlayerAccount(player);
+    }
+
+    // Banks are not supported
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return noBanks();
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return noBanks();
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return Collections.emptyList();
+    }
+
+    private static EconomyResponse noBanks() {
+        return new EconomyResponse(0, 0, EconomyResponse.ResponseType.NOT_IMPLEMENTED, NAME + " does not support banks");
+    }
+}
@@ -2,6 +2,7 @@ package dev.ked.stormcraft.essence.infusion;
 
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
 import dev.ked.stormcraft.essence.config.EssenceConfig;
+import dev.ked.stormcraft.essence.scheduler.TickSpreadScheduler;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -15,7 +16,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.EulerAngle;
 
 import java.util.*;
@@ -28,12 +28,15 @@ public class InfusionPedestalManager {
     private final StormcraftEssencePlugin plugin;
     private final EssenceConfig config;
     private final Map<String, InfusionPedestal> pedestals;
+    private final TickSpreadScheduler scheduler;
+    private TickSpreadScheduler.SpreadTask<String> displayWheel;
     private static final String PEDESTAL_KEY = "stormcraft_pedestal";
     private static final String INFUSION_TIER_KEY = "stormcraft_infusion_tier";
 
-    public InfusionPedestalManager(StormcraftEssencePlugin plugin, EssenceConfig config) {
+    public InfusionPedestalManager(StormcraftEssencePlugin plugin, EssenceConfig config, TickSpreadScheduler scheduler) {
         this.plugin = plugin;
         this.config = config;
+        this.scheduler = scheduler;
         this.pedestals = new ConcurrentHashMap<>();
     }
 
@@ -41,6 +44,12 @@ public class InfusionPedestalManager {
      * Places an infusion pedestal at the target location.
      */
     public boolean placePedestal(Player player, Location targetLocation) {
+        // The pedestal keeps the owner's SEL, so it can't be placed with a loading placeholder
+        if (plugin.getPlayerDataManager().getPlayerData(player).isPlaceholder()) {
+            player.sendMessage(config.getMessage("prefix") + config.getMessage("data_loading"));
+            return false;
+        }
+
         // Check if block is air
         Block block = targetLocation.getBlock();
         if (block.getType() != Material.AIR) {
@@ -76,6 +85,9 @@ public class InfusionPedestalManager {
         int sel = plugin.getPlayerDataManager().getPlayerData(player).getStormExposureLevel();
         InfusionPedestal pedestal = new InfusionPedestal(targetLocation, player.getUniqueId(), sel);
         pedestals.put(key, pedestal);
+        if (displayWheel != null) {
+            displayWheel.add(key);
+        }
 
         // Visual effects
         targetLocation.getWorld().spawnParticle(Particle.ENCHANT, targetLocation.clone().add(0.5, 1, 0.5), 50, 0.5, 0.5, 0.5, 0.1);
@@ -174,6 +186,9 @@ public class InfusionPedestalManager {
     public void removePedestal(Location location) {
         String key = locationToKey(location);
         pedestals.remove(key);
+        if (displayWheel != null) {
+            displayWheel.remove(key);
+        }
 
         // Remove block
         Block block = location.getBlock();
@@ -217,17 +232,18 @@ public class InfusionPedestalManager {
     }
 
     /**
-     * Starts the update task to refresh pedestal displays.
+     * Starts refreshing pedestal displays every 10 seconds, each pedestal on its own tick of the interval.
      */
     public void startUpdateTask() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Map.Entry<String, InfusionPedestal> entry : pedestals.entrySet()) {
-                    updateArmorStandDisplay(entry.getValue().getLocation(), entry.getValue());
-                }
+        displayWheel = scheduler.register("pedestals", 20 * 10, key -> {
+            InfusionPedestal pedestal = pedestals.get(key);
+            if (pedestal != null) {
+                updateArmorStandDisplay(pedestal.getLocation(), pedestal);
             }
-        }.runTaskTimer(plugin, 0L, 20L * 10); // Update every 10 seconds
+        });
+        for (String key : pedestals.keySet()) {
+            displayWheel.add(key);
+        }
     }
 
     private void applyInfusion(ItemStack item, int tier, UUID ownerUUID) {
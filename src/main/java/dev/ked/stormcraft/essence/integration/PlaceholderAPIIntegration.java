@@ -4,7 +4,7 @@ import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
 import dev.ked.stormcraft.essence.model.PassiveAbility;
 import dev.ked.stormcraft.essence.model.PlayerEssenceData;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
-import org.bukkit.entity.Player;
+import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.stream.Collectors;
@@ -40,13 +40,22 @@ public class PlaceholderAPIIntegration extends PlaceholderExpansion {
         return true; // Keep expansion loaded even if plugin reloads
     }
 
+    /**
+     * May be called off the main thread (async scoreboards); the data layer is safe for that
+     */
     @Override
-    public String onPlaceholderRequest(Player player, @NotNull String identifier) {
+    public String onRequest(OfflinePlayer player, @NotNull String identifier) {
         if (player == null) {
             return "";
         }
 
-        PlayerEssenceData data = plugin.getPlayerDataManager().getPlayerData(player);
+        PlayerEssenceData data;
+        if (player.isOnline()) {
+            data = plugin.getPlayerDataManager().getPlayerData(player.getUniqueId());
+        } else {
+            // Offline lookups (leaderboards, profile menus) are served from the bounded offline cache
+            data = plugin.getPlayerDataManager().getOfflinePlayerData(player.getUniqueId());
+        }
 
         // %stormessence_sel% - Storm Exposure Level (for chat prefix)
         if (identifier.equals("sel")) {
@@ -66,7 +75,7 @@ public class PlaceholderAPIIntegration extends PlaceholderExpansion {
 
         // %stormessence_balance% - Current essence balance (from Vault)
         if (identifier.equals("balance")) {
-            return String.format("%.2f", plugin.getEconomy().getBalance(player));
+            return String.format("%.2f", plugin.getEssenceEconomy().getBalance(player));
         }
 
         // %stormessence_drain_rate% - Current essence drain rate per second
@@ -1,6 +1,7 @@
 package dev.ked.stormcraft.essence.listener;
 
 import dev.ked.stormcraft.essence.ability.ActiveAbilityManager;
+import dev.ked.stormcraft.essence.config.EssenceConfig;
 import dev.ked.stormcraft.essence.model.PassiveAbility;
 import dev.ked.stormcraft.essence.model.PlayerEssenceData;
 import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
@@ -12,6 +13,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 
 /**
@@ -20,10 +22,12 @@ import org.bukkit.inventory.ItemStack;
 public class CompassInteractListener implements Listener {
     private final ActiveAbilityManager abilityManager;
     private final PlayerDataManager playerDataManager;
+    private final EssenceConfig config;
 
-    public CompassInteractListener(ActiveAbilityManager abilityManager, PlayerDataManager playerDataManager) {
+    public CompassInteractListener(ActiveAbilityManager abilityManager, PlayerDataManager playerDataManager, EssenceConfig config) {
         this.abilityManager = abilityManager;
         this.playerDataManager = playerDataManager;
+        this.config = config;
     }
 
     @EventHandler
@@ -44,6 +48,10 @@ public class CompassInteractListener implements Listener {
         event.setCancelled(true);
 
         PlayerEssenceData data = playerDataManager.getPlayerData(player);
+        if (data.isPlaceholder()) {
+            player.sendMessage(config.getMessage("prefix") + config.getMessage("data_loading"));
+            return;
+        }
 
         // SHIFT + RIGHT-CLICK = Cycle through abilities
         if (player.isSneaking()) {
@@ -132,4 +140,12 @@ public class CompassInteractListener implements Listener {
 
         return null;
     }
+
+    /**
+     * Drop the player's active ability state (running cooldowns are kept)
+     */
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        abilityManager.onPlayerQuit(event.getPlayer());
+    }
 }
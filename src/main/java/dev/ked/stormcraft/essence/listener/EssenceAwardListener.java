@@ -2,9 +2,9 @@ package dev.ked.stormcraft.essence.listener;
 
 import dev.ked.stormcraft.api.events.StormcraftEssenceAwardEvent;
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
-import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+import dev.ked.stormcraft.essence.award.AwardAggregator;
+import dev.ked.stormcraft.essence.economy.EssenceEconomy;
 import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
-import net.milkbowl.vault.economy.Economy;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -19,12 +19,15 @@ import org.bukkit.event.player.PlayerQuitEvent;
 public class EssenceAwardListener implements Listener {
     private final StormcraftEssencePlugin plugin;
     private final PlayerDataManager playerDataManager;
-    private final Economy economy;
+    private final EssenceEconomy economy;
+    private final AwardAggregator aggregator; // Null when each award is applied as it arrives
 
-    public EssenceAwardListener(StormcraftEssencePlugin plugin, PlayerDataManager playerDataManager, Economy economy) {
+    public EssenceAwardListener(StormcraftEssencePlugin plugin, PlayerDataManager playerDataManager,
+                                EssenceEconomy economy, AwardAggregator aggregator) {
         this.plugin = plugin;
         this.playerDataManager = playerDataManager;
         this.economy = economy;
+        this.aggregator = aggregator;
     }
 
     /**
@@ -36,26 +39,24 @@ public class EssenceAwardListener implements Listener {
         Player player = event.getPlayer();
         double essence = event.getEssenceAmount();
 
-        // Award essence via Vault economy
-        if (economy != null) {
-            try {
-                economy.depositPlayer(player, essence);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to deposit essence for " + player.getName() + ": " + e.getMessage());
-                return; // Don't track essence if deposit failed
-            }
+        if (aggregator != null) {
+            aggregator.add(player.getUniqueId(), essence);
+            return;
         }
 
-        // Track essence for SEL progression
-        PlayerEssenceData data = playerDataManager.getPlayerData(player);
+        // Award essence via Vault economy (queued - failures are logged by the economy)
+        economy.deposit(player, essence);
 
-        // Block essence gain if player has active passives
-        if (data.hasActivePassives()) {
-            return; // Cannot accrue essence while passives are draining it
-        }
+        // Track essence for SEL progression (deferred if the record is still being prefetched)
+        playerDataManager.withPlayerData(player.getUniqueId(), data -> {
+            // Block essence gain if player has active passives
+            if (data.hasActivePassives()) {
+                return; // Cannot accrue essence while passives are draining it
+            }
 
-        // Add to lifetime total
-        data.addStormEssence(essence);
+            // Add to lifetime total
+            data.addStormEssence(essence);
+        });
     }
 
     /**
@@ -63,6 +64,17 @@ public class EssenceAwardListener implements Listener {
      */
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        if (aggregator != null) {
+            aggregator.flush(event.getPlayer().getUniqueId());
+        }
         playerDataManager.unloadPlayerData(event.getPlayer().getUniqueId());
     }
+
+    /**
+     * Drop the cached balance once everything else (e.g. drain settlement) has used it
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuitMonitor(PlayerQuitEvent event) {
+        economy.forget(event.getPlayer().getUniqueId());
+    }
 }
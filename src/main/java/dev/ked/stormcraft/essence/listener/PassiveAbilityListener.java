@@ -11,6 +11,8 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
@@ -28,13 +30,27 @@ public class PassiveAbilityListener implements Listener {
         this.config = config;
     }
 
+    /**
+     * Resume draining players who logged out with passives active
+     */
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        abilityManager.trackPlayer(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        abilityManager.untrackPlayer(event.getPlayer().getUniqueId());
+    }
+
     /**
      * Apply Storm Resistance passive (reduces storm damage)
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onExposureCheck(StormcraftExposureCheckEvent event) {
         Player player = event.getPlayer();
-        PlayerEssenceData data = playerDataManager.getPlayerData(player);
+        // Damage can't wait for a prefetch to finish, so wait for the record rather than skip the passive
+        PlayerEssenceData data = playerDataManager.getLoadedPlayerData(player.getUniqueId());
 
         if (!data.getActivePassives().contains(PassiveAbility.STORM_RESISTANCE)) {
             return;
@@ -55,7 +71,7 @@ public class PassiveAbilityListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR)
     public void onStormTick(StormcraftStormTickEvent event) {
         for (Player player : event.getExposedPlayers()) {
-            PlayerEssenceData data = playerDataManager.getPlayerData(player);
+            PlayerEssenceData data = playerDataManager.getLoadedPlayerData(player.getUniqueId());
 
             // Lightning Reflexes - speed boost during storm
             if (data.getActivePassives().contains(PassiveAbility.LIGHTNING_REFLEXES)) {
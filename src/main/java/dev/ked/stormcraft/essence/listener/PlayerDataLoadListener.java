@@ -0,0 +1,56 @@
+package dev.ked.stormcraft.essence.listener;
+
+import dev.ked.stormcraft.essence.persistence.PlayerDataManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Prefetches player essence data during pre-login, off the main thread,
+ * so lazy mode never has to read from disk when the player spawns.
+ * Pins the record for as long as the player is online.
+ */
+public class PlayerDataLoadListener implements Listener {
+    private final PlayerDataManager playerDataManager;
+    private final long prefetchTimeoutMillis;
+
+    public PlayerDataLoadListener(PlayerDataManager playerDataManager, long prefetchTimeoutMillis) {
+        this.playerDataManager = playerDataManager;
+        this.prefetchTimeoutMillis = prefetchTimeoutMillis;
+    }
+
+    /**
+     * Runs at MONITOR so players kicked by other plugins are never loaded
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        // Waiting here only holds up this player's login thread, never the main thread.
+        // If the load is slow the player joins anyway and the record is installed when it lands.
+        try {
+            playerDataManager.prefetchPlayerData(event.getUniqueId())
+                    .get(prefetchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Load keeps running (or was logged) - lookups get a placeholder until it finishes
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs first so every other join handler sees the pinned record
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        playerDataManager.markOnline(event.getPlayer().getUniqueId());
+    }
+}
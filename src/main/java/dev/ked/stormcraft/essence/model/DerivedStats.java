@@ -0,0 +1,21 @@
+package dev.ked.stormcraft.essence.model;
+
+/**
+ * Values derived from a player's SEL, active passives and the config, cached on
+ * {@link PlayerEssenceData} so hot paths (drain tick, placeholders, storm ticks) don't recompute them.
+ * Stamped with the versions it was computed from; stale once either version moves on.
+ *
+ * @param dataVersion PlayerEssenceData stats version these were computed from
+ * @param configVersion EssenceConfig version these were computed from
+ * @param drainRate Essence drained per second
+ * @param resistanceReduction Storm damage reduction %, or 0 if Storm Resistance is off
+ * @param reflexesSpeed Speed amplifier, or -1 if Lightning Reflexes is off
+ * @param stormbornRegen Health regen per storm tick, or 0 if Stormborn is off
+ */
+public record DerivedStats(int dataVersion, int configVersion, double drainRate,
+                           double resistanceReduction, int reflexesSpeed, double stormbornRegen) {
+
+    public boolean isCurrent(int dataVersion, int configVersion) {
+        return this.dataVersion == dataVersion && this.configVersion == configVersion;
+    }
+}
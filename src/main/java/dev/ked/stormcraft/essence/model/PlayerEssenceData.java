@@ -1,23 +1,56 @@
 package dev.ked.stormcraft.essence.model;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Stores a player's Storm Exposure Level (SEL) and active passive abilities.
+ * Safe to read from any thread (e.g. async placeholder requests): essence is
+ * accumulated lock-free and the passive set is replaced with an immutable copy
+ * on every change, so readers never see it mid-update.
  */
 public class PlayerEssenceData {
     private final UUID playerId;
-    private double totalStormEssence; // Lifetime essence earned from storms (never decreases)
-    private Set<PassiveAbility> activePassives;
-    private PassiveAbility selectedActiveAbility; // Currently selected compass ability
+    private final AtomicLong totalStormEssenceBits; // Lifetime essence earned from storms (never decreases), as double bits
+    private final AtomicLong balanceBits; // Spendable essence when the native economy is used, as double bits
+    private final AtomicReference<Set<PassiveAbility>> activePassives; // Immutable, swapped on change
+    private volatile PassiveAbility selectedActiveAbility; // Currently selected compass ability
+    private volatile boolean dirty; // Changed since the last persisted snapshot
+    private final boolean placeholder; // Stand-in returned while the real record is still loading
+    private final AtomicInteger statsVersion = new AtomicInteger(); // Bumped when SEL or passives change
+    private volatile DerivedStats derivedStats; // Cached derived values, stamped with statsVersion
 
     public PlayerEssenceData(UUID playerId) {
+        this(playerId, false);
+    }
+
+    private PlayerEssenceData(UUID playerId, boolean placeholder) {
         this.playerId = playerId;
-        this.totalStormEssence = 0.0;
-        this.activePassives = new HashSet<>();
+        this.totalStormEssenceBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.balanceBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.activePassives = new AtomicReference<>(Collections.unmodifiableSet(EnumSet.noneOf(PassiveAbility.class)));
         this.selectedActiveAbility = null;
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * Creates an empty, read-only stand-in for a record that is still loading.
+     * Placeholders are never cached or saved, so changes made to them are discarded.
+     */
+    public static PlayerEssenceData placeholder(UUID playerId) {
+        return new PlayerEssenceData(playerId, true);
+    }
+
+    /**
+     * @return Whether this is a placeholder for a record that has not finished loading
+     */
+    public boolean isPlaceholder() {
+        return placeholder;
     }
 
     public UUID getPlayerId() {
@@ -28,6 +61,13 @@ public class PlayerEssenceData {
      * @return Storm Exposure Level (SEL) - integer level based on total storm essence
      */
     public int getStormExposureLevel() {
+        return calculateStormExposureLevel(getTotalStormEssence());
+    }
+
+    /**
+     * @return Storm Exposure Level (SEL) for the given lifetime essence
+     */
+    public static int calculateStormExposureLevel(double totalStormEssence) {
         // Formula: SEL = floor(sqrt(totalStormEssence / 10))
         // This creates a diminishing returns progression
         // Example: 100 essence = level 3, 1000 = level 10, 10000 = level 31
@@ -38,53 +78,143 @@ public class PlayerEssenceData {
      * @return Total lifetime essence earned from storm exposure
      */
     public double getTotalStormEssence() {
-        return totalStormEssence;
+        return Double.longBitsToDouble(totalStormEssenceBits.get());
     }
 
     /**
      * Adds essence to the lifetime total (from storm exposure)
      */
     public void addStormEssence(double amount) {
-        this.totalStormEssence += amount;
+        long current;
+        double next;
+        do {
+            current = totalStormEssenceBits.get();
+            next = Double.longBitsToDouble(current) + amount;
+        } while (!totalStormEssenceBits.compareAndSet(current, Double.doubleToRawLongBits(next)));
+        this.dirty = true;
+
+        // Derived stats depend on SEL, not raw essence, so only a level change invalidates them
+        if (calculateStormExposureLevel(next) != calculateStormExposureLevel(Double.longBitsToDouble(current))) {
+            statsVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Spendable essence held by the native economy
+     */
+    public double getBalance() {
+        return Double.longBitsToDouble(balanceBits.get());
     }
 
     /**
-     * @return Set of currently active passive abilities
+     * Sets the native balance outright (loading, admin commands)
+     */
+    public void setBalance(double balance) {
+        long previous = balanceBits.getAndSet(Double.doubleToRawLongBits(balance));
+        if (Double.longBitsToDouble(previous) != balance) {
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * Adds essence to the native balance
+     * @return The new balance
+     */
+    public double deposit(double amount) {
+        long current;
+        double next;
+        do {
+            current = balanceBits.get();
+            next = Double.longBitsToDouble(current) + amount;
+        } while (!balanceBits.compareAndSet(current, Double.doubleToRawLongBits(next)));
+        this.dirty = true;
+        return next;
+    }
+
+    /**
+     * Takes essence from the native balance if it covers the amount, atomically
+     * @return The new balance, or NaN if the balance was too low (nothing is taken)
+     */
+    public double withdraw(double amount) {
+        long current;
+        double next;
+        do {
+            current = balanceBits.get();
+            next = Double.longBitsToDouble(current) - amount;
+            if (next < 0) {
+                return Double.NaN;
+            }
+        } while (!balanceBits.compareAndSet(current, Double.doubleToRawLongBits(next)));
+        this.dirty = true;
+        return next;
+    }
+
+    /**
+     * @return Immutable set of currently active passive abilities
      */
     public Set<PassiveAbility> getActivePassives() {
-        return activePassives;
+        return activePassives.get();
     }
 
     /**
      * Toggles a passive ability on/off
      */
     public void togglePassive(PassiveAbility ability) {
-        if (activePassives.contains(ability)) {
-            activePassives.remove(ability);
-        } else {
-            activePassives.add(ability);
-        }
+        Set<PassiveAbility> current;
+        do {
+            current = activePassives.get();
+        } while (!replacePassive(current, ability, !current.contains(ability)));
     }
 
     /**
      * Enables a passive ability
      */
     public void enablePassive(PassiveAbility ability) {
-        activePassives.add(ability);
+        setPassive(ability, true);
     }
 
     /**
      * Disables a passive ability
      */
     public void disablePassive(PassiveAbility ability) {
-        activePassives.remove(ability);
+        setPassive(ability, false);
+    }
+
+    private void setPassive(PassiveAbility ability, boolean enabled) {
+        Set<PassiveAbility> current;
+        do {
+            current = activePassives.get();
+            if (current.contains(ability) == enabled) {
+                return;
+            }
+        } while (!replacePassive(current, ability, enabled));
+    }
+
+    /**
+     * Publishes a copy of the given set with one ability changed
+     * @return false if another thread replaced the set first
+     */
+    private boolean replacePassive(Set<PassiveAbility> current, PassiveAbility ability, boolean enabled) {
+        EnumSet<PassiveAbility> next = current.isEmpty() ? EnumSet.noneOf(PassiveAbility.class) : EnumSet.copyOf(current);
+        if (enabled) {
+            next.add(ability);
+        } else {
+            next.remove(ability);
+        }
+
+        if (!activePassives.compareAndSet(current, Collections.unmodifiableSet(next))) {
+            return false;
+        }
+        dirty = true;
+        statsVersion.incrementAndGet();
+        return true;
     }
 
     /**
      * @return Whether any passive abilities are currently active
      */
     public boolean hasActivePassives() {
-        return !activePassives.isEmpty();
+        return !activePassives.get().isEmpty();
     }
 
     /**
@@ -98,6 +228,49 @@ public class PlayerEssenceData {
      * Sets the selected active ability for compass
      */
     public void setSelectedActiveAbility(PassiveAbility ability) {
-        this.selectedActiveAbility = ability;
+        if (this.selectedActiveAbility != ability) {
+            this.selectedActiveAbility = ability;
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * @return Version that changes whenever SEL or the active passives change
+     */
+    public int getStatsVersion() {
+        return statsVersion.get();
+    }
+
+    /**
+     * @return Last cached derived stats (check {@link DerivedStats#isCurrent} before use), or null
+     */
+    public DerivedStats getDerivedStats() {
+        return derivedStats;
+    }
+
+    public void setDerivedStats(DerivedStats derivedStats) {
+        this.derivedStats = derivedStats;
+    }
+
+    /**
+     * @return Whether this data has changed since it was last persisted
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Flags this data as needing to be persisted
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Clears the dirty flag (call before taking a snapshot for saving, so a change
+     * made while the snapshot is taken marks the record dirty again)
+     */
+    public void markClean() {
+        this.dirty = false;
     }
 }
@@ -0,0 +1,178 @@
+package dev.ked.stormcraft.essence.persistence;
+
+import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Size- and time-bounded LRU cache for records of players who are not online
+ * (placeholder lookups, admin commands, pre-login prefetches that never joined).
+ * Evicted and expired records are handed to a listener so unsaved changes can be persisted.
+ */
+public class OfflineDataCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Consumer<PlayerEssenceData> evictionListener;
+
+    // Access-ordered, so the eldest entry is always the least recently used (guarded by this)
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Metrics (guarded by this)
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    private static final class Entry {
+        private final PlayerEssenceData data;
+        private long lastAccessNanos;
+
+        private Entry(PlayerEssenceData data, long now) {
+            this.data = data;
+            this.lastAccessNanos = now;
+        }
+    }
+
+    public OfflineDataCache(int maxSize, long ttlSeconds, Consumer<PlayerEssenceData> evictionListener) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSeconds));
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * @return The cached record, or null on a miss or if it has expired
+     */
+    public PlayerEssenceData get(UUID playerId) {
+        PlayerEssenceData expired;
+        synchronized (this) {
+            Entry entry = entries.get(playerId);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+
+            long now = System.nanoTime();
+            if (now - entry.lastAccessNanos <= ttlNanos) {
+                hits++;
+                entry.lastAccessNanos = now;
+                return entry.data;
+            }
+
+            entries.remove(playerId);
+            misses++;
+            expirations++;
+            expired = entry.data;
+        }
+
+        evictionListener.accept(expired);
+        return null;
+    }
+
+    /**
+     * Caches a record unless one is already present, evicting the least recently used if full
+     * @return The record now cached for this player
+     */
+    public PlayerEssenceData putIfAbsent(UUID playerId, PlayerEssenceData data) {
+        List<PlayerEssenceData> evicted = new ArrayList<>();
+        PlayerEssenceData cached;
+        synchronized (this) {
+            Entry existing = entries.get(playerId);
+            if (existing != null) {
+                return existing.data;
+            }
+
+            entries.put(playerId, new Entry(data, System.nanoTime()));
+            cached = data;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                evicted.add(eldest.next().data);
+                eldest.remove();
+                evictions++;
+            }
+        }
+
+        // Listener runs outside the lock since it may write to storage
+        evicted.forEach(evictionListener);
+        return cached;
+    }
+
+    /**
+     * Removes a record without notifying the eviction listener (e.g. when it moves to another tier)
+     * @return The removed record, or null if none was cached
+     */
+    public synchronized PlayerEssenceData remove(UUID playerId) {
+        Entry entry = entries.remove(playerId);
+        return entry != null ? entry.data : null;
+    }
+
+    /**
+     * Drops every record that has not been accessed within the TTL
+     */
+    public void expireStale() {
+        List<PlayerEssenceData> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            Iterator<Entry> iterator = entries.values().iterator();
+            // Least recently used first, so stop at the first entry still inside the TTL
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (now - entry.lastAccessNanos <= ttlNanos) break;
+
+                expired.add(entry.data);
+                iterator.remove();
+                expirations++;
+            }
+        }
+
+        expired.forEach(evictionListener);
+    }
+
+    /**
+     * @return A copy of the cached records (does not count as access)
+     */
+    public synchronized List<PlayerEssenceData> values() {
+        List<PlayerEssenceData> values = new ArrayList<>(entries.size());
+        for (Map.Entry<UUID, Entry> entry : entries.entrySet()) {
+            values.add(entry.getValue().data);
+        }
+        return values;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Records dropped because the cache was full
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Records dropped because they were not accessed within the TTL
+     */
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+}
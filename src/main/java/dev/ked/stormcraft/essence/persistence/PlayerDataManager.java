@@ -1,49 +1,185 @@
 package dev.ked.stormcraft.essence.persistence;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
-import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.config.EssenceConfig;
 import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+import dev.ked.stormcraft.essence.persistence.store.BinaryPlayerDataStore;
+import dev.ked.stormcraft.essence.persistence.store.JsonPlayerDataStore;
+import dev.ked.stormcraft.essence.persistence.store.LogPlayerDataStore;
+import dev.ked.stormcraft.essence.persistence.store.MappedPlayerDataStore;
+import dev.ked.stormcraft.essence.persistence.store.PlayerDataStore;
+import dev.ked.stormcraft.essence.persistence.store.SqlitePlayerDataStore;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
- * Manages persistence of player essence data to JSON files.
+ * Manages caching and persistence of player essence data through a {@link PlayerDataStore}.
+ * Online players are pinned in memory; records looked up for anyone else go into a
+ * bounded {@link OfflineDataCache} so heap use stays flat on servers with many players.
+ * In write-behind mode saves are queued and written off the main thread.
+ * In lazy mode records are only loaded on pre-login or first lookup.
+ * Pre-login prefetches run on a loader thread so joins never read from disk on the main thread.
  */
 public class PlayerDataManager {
+    // Rough heap held by one cached record (data object, UUID, passive set and cache entry)
+    private static final int ESTIMATED_RECORD_BYTES = 256;
+    // Records parsed to estimate eager load cost when lazy mode warms nothing
+    private static final int LOAD_COST_SAMPLE_SIZE = 8;
+
     private final StormcraftEssencePlugin plugin;
-    private final File dataFolder;
-    private final Gson gson;
-    private final Map<UUID, PlayerEssenceData> playerDataCache;
+    private final EssenceConfig config;
+    private final PlayerDataStore store;
+    // Online players (and every record in eager mode) - never evicted
+    private final Map<UUID, PlayerEssenceData> pinnedCache = new ConcurrentHashMap<>();
+    private final OfflineDataCache offlineCache;
+    private final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+    // Serializes tier moves so a record landing mid-join can't be stranded in the offline tier
+    private final Object tierLock = new Object();
+    private BukkitTask maintenanceTask;
+    private BukkitTask autosaveTask;
+    // Dirty records left over from earlier autosave cycles, oldest first (main thread only)
+    private final Deque<PlayerEssenceData> autosaveBacklog = new ArrayDeque<>();
+    // The last autosave batch written on the loader threads when write-behind is disabled (main thread only)
+    private CompletableFuture<Void> autosaveWrite = CompletableFuture.completedFuture(null);
+    private final WriteBehindQueue writeBehindQueue; // null when write-behind is disabled
+    private final Map<UUID, CompletableFuture<PlayerEssenceData>> pendingLoads = new ConcurrentHashMap<>();
+    private final ExecutorService loadExecutor;
+    private StartupLoadReport startupLoadReport;
+
+    // Prefetch metrics
+    private final AtomicLong prefetches = new AtomicLong();
+    private final AtomicLong placeholdersServed = new AtomicLong();
+    private final AtomicLong mainThreadLoads = new AtomicLong();
+    // Records whose synchronous save failed and were left dirty for a later save
+    private final AtomicLong failedSaves = new AtomicLong();
 
-    public PlayerDataManager(StormcraftEssencePlugin plugin) {
+    // Autosave metrics (main thread only)
+    private long autosaveCycles;
+    private long autosavedRecords;
+    private int lastAutosaveRecords;
+    private long lastAutosaveNanos;
+
+    public PlayerDataManager(StormcraftEssencePlugin plugin, EssenceConfig config) {
         this.plugin = plugin;
-        this.dataFolder = new File(plugin.getDataFolder(), "playerdata");
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        this.playerDataCache = new HashMap<>();
+        this.config = config;
+        this.store = createStore();
+        this.offlineCache = new OfflineDataCache(config.getOfflineCacheMaxSize(),
+                config.getOfflineCacheTtlSeconds(), this::persistIfDirty);
 
-        // Create data folder if it doesn't exist
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
+        if (config.isWriteBehindEnabled()) {
+            this.writeBehindQueue = new WriteBehindQueue(plugin, store::saveAll,
+                    config.getWriteBehindQueueCapacity(),
+                    config.getWriteBehindBatchSize(),
+                    config.getWriteBehindFlushIntervalMillis());
+        } else {
+            this.writeBehindQueue = null;
         }
+
+        this.loadExecutor = Executors.newFixedThreadPool(Math.max(1, config.getPrefetchThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "Stormcraft-Essence-Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
-     * Gets or creates player essence data
+     * Opens the configured storage backend, falling back to binary files if it is unavailable
+     */
+    private PlayerDataStore createStore() {
+        File dataFolder = new File(plugin.getDataFolder(), "playerdata");
+
+        String storageType = config.getStorageType();
+        if (storageType.equals("json")) {
+            return new JsonPlayerDataStore(plugin, dataFolder);
+        }
+
+        if (storageType.equals("sqlite")) {
+            SqlitePlayerDataStore sqliteStore = SqlitePlayerDataStore.open(plugin, new File(dataFolder, "playerdata.db"));
+            if (sqliteStore != null) {
+                // The binary store also picks up any legacy JSON files
+                migrateIfEmpty(new BinaryPlayerDataStore(plugin, dataFolder), sqliteStore);
+                return sqliteStore;
+            }
+            plugin.getLogger().warning("Falling back to binary player data storage");
+        }
+
+        if (storageType.equals("log")) {
+            LogPlayerDataStore logStore = LogPlayerDataStore.open(plugin, new File(dataFolder, "log"),
+                    config.getLogSegmentSizeBytes(), config.getLogCompactionThreshold());
+            if (logStore != null) {
+                migrateIfEmpty(new BinaryPlayerDataStore(plugin, dataFolder), logStore);
+                return logStore;
+            }
+            plugin.getLogger().warning("Falling back to binary player data storage");
+        }
+
+        if (storageType.equals("mapped")) {
+            MappedPlayerDataStore mappedStore = MappedPlayerDataStore.open(plugin, new File(dataFolder, "playerdata.slots"));
+            if (mappedStore != null) {
+                migrateIfEmpty(new BinaryPlayerDataStore(plugin, dataFolder), mappedStore);
+                return mappedStore;
+            }
+            plugin.getLogger().warning("Falling back to binary player data storage");
+        }
+
+        return new BinaryPlayerDataStore(plugin, dataFolder);
+    }
+
+    /**
+     * One-time import of existing records when switching to a new, empty backend
+     */
+    private void migrateIfEmpty(PlayerDataStore from, PlayerDataStore to) {
+        if (to.count() > 0 || from.count() == 0) {
+            return;
+        }
+
+        List<PlayerDataSnapshot> records = from.loadAll();
+        List<PlayerDataSnapshot> failed = to.saveAll(records);
+        plugin.getLogger().info("Migrated " + (records.size() - failed.size()) + " player essence records from " + from.getName() + " to " + to.getName());
+        if (!failed.isEmpty()) {
+            plugin.getLogger().severe(failed.size() + " player essence records could not be migrated and are still in " + from.getName() + " storage");
+        }
+    }
+
+    /**
+     * Gets or creates player essence data.
+     * If the record is still being prefetched, the main thread gets a read-only placeholder
+     * instead of blocking; other threads wait for the load.
      */
     public PlayerEssenceData getPlayerData(UUID playerId) {
-        return playerDataCache.computeIfAbsent(playerId, id -> {
-            PlayerEssenceData data = loadPlayerData(id);
-            return data != null ? data : new PlayerEssenceData(id);
-        });
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<PlayerEssenceData> pending = pendingLoads.get(playerId);
+        if (pending != null) {
+            if (!pending.isDone() && Bukkit.isPrimaryThread()) {
+                placeholdersServed.incrementAndGet();
+                return PlayerEssenceData.placeholder(playerId);
+            }
+            // A failed prefetch falls through to a synchronous load
+            PlayerEssenceData loaded = pending.exceptionally(error -> null).join();
+            if (loaded != null) {
+                return loaded;
+            }
+        }
+
+        if (Bukkit.isPrimaryThread()) {
+            mainThreadLoads.incrementAndGet();
+        }
+        return install(playerId, loadOrCreate(playerId));
     }
 
     /**
@@ -54,112 +190,606 @@ public class PlayerDataManager {
     }
 
     /**
-     * Loads all player data files into cache
+     * Gets player data without ever blocking on disk I/O
+     * @return A future completed with the cached record once it is loaded
      */
-    public void loadAllPlayerData() {
-        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".json"));
-        if (files == null) return;
-
-        int loaded = 0;
-        for (File file : files) {
-            try {
-                String fileName = file.getName().replace(".json", "");
-                UUID playerId = UUID.fromString(fileName);
-                PlayerEssenceData data = loadPlayerData(playerId);
-                if (data != null) {
-                    playerDataCache.put(playerId, data);
-                    loaded++;
-                }
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Invalid player data file: " + file.getName());
-            }
+    public CompletableFuture<PlayerEssenceData> getPlayerDataAsync(UUID playerId) {
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return prefetchPlayerData(playerId);
+    }
+
+    /**
+     * Starts loading a player's record on the loader thread and installs it in the cache.
+     * Concurrent prefetches for the same player share one load.
+     */
+    public CompletableFuture<PlayerEssenceData> prefetchPlayerData(UUID playerId) {
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<PlayerEssenceData> future = new CompletableFuture<>();
+        CompletableFuture<PlayerEssenceData> existing = pendingLoads.putIfAbsent(playerId, future);
+        if (existing != null) {
+            return existing;
         }
 
-        plugin.getLogger().info("Loaded " + loaded + " player essence data files");
+        prefetches.incrementAndGet();
+        CompletableFuture.supplyAsync(() -> loadOrCreate(playerId), loadExecutor)
+                // Keep whatever a concurrent synchronous load may have installed first
+                .thenApply(data -> install(playerId, data))
+                .whenComplete((data, error) -> {
+                    pendingLoads.remove(playerId, future);
+                    if (error != null) {
+                        plugin.getLogger().severe("Failed to prefetch player data for " + playerId + ": " + error.getMessage());
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(data);
+                    }
+                });
+        return future;
     }
 
     /**
-     * Loads player data from file
+     * Gets a player's real record, never a placeholder: on the main thread this waits for a
+     * pending prefetch instead. For paths that can't be deferred or retried, like damage changes.
      */
-    private PlayerEssenceData loadPlayerData(UUID playerId) {
-        File file = new File(dataFolder, playerId.toString() + ".json");
-        if (!file.exists()) {
-            return null;
+    public PlayerEssenceData getLoadedPlayerData(UUID playerId) {
+        PlayerEssenceData data = getPlayerData(playerId);
+        if (!data.isPlaceholder()) {
+            return data;
+        }
+
+        CompletableFuture<PlayerEssenceData> pending = pendingLoads.get(playerId);
+        PlayerEssenceData loaded = pending != null ? pending.exceptionally(error -> null).join() : null;
+        if (loaded != null) {
+            return loaded;
         }
 
-        try (FileReader reader = new FileReader(file)) {
-            Type type = new TypeToken<Map<String, Object>>() {}.getType();
-            Map<String, Object> data = gson.fromJson(reader, type);
+        // The prefetch failed or finished in between
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            return cached;
+        }
+        mainThreadLoads.incrementAndGet();
+        return install(playerId, loadOrCreate(playerId));
+    }
 
-            PlayerEssenceData playerData = new PlayerEssenceData(playerId);
+    /**
+     * Gets a player's record only if it is already in memory. Never loads or waits.
+     * @return null if the record is not cached
+     */
+    public PlayerEssenceData getCachedPlayerData(UUID playerId) {
+        return getCached(playerId);
+    }
+
+    /**
+     * Runs an action against a player's real record: immediately if it is loaded,
+     * otherwise on the main thread once the prefetch finishes. If the prefetch fails,
+     * the record is loaded on the main thread instead so the action still runs.
+     */
+    public void withPlayerData(UUID playerId, Consumer<PlayerEssenceData> action) {
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            action.accept(cached);
+            return;
+        }
 
-            // Load total storm essence
-            if (data.containsKey("totalStormEssence")) {
-                playerData.addStormEssence(((Number) data.get("totalStormEssence")).doubleValue());
+        getPlayerDataAsync(playerId).whenComplete((data, error) ->
+                Bukkit.getScheduler().runTask(plugin, () ->
+                        action.accept(error == null ? data : getLoadedPlayerData(playerId))));
+    }
+
+    /**
+     * Gets a record for repeated offline reads (placeholders, leaderboards) without touching disk
+     * on the calling thread. A miss starts a prefetch into the bounded offline tier, so later
+     * reads are served from memory until the record expires or is evicted.
+     * @return The cached record, the last queued save, or a read-only placeholder while it loads
+     */
+    public PlayerEssenceData getOfflinePlayerData(UUID playerId) {
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            return cached;
+        }
+
+        prefetchPlayerData(playerId);
+        if (writeBehindQueue != null) {
+            PlayerDataSnapshot pending = writeBehindQueue.getPending(playerId);
+            if (pending != null) {
+                return pending.toPlayerData();
             }
+        }
+        placeholdersServed.incrementAndGet();
+        return PlayerEssenceData.placeholder(playerId);
+    }
 
-            // Load active passives
-            if (data.containsKey("activePassives")) {
-                List<String> passives = (List<String>) data.get("activePassives");
-                for (String passiveName : passives) {
-                    try {
-                        PassiveAbility ability = PassiveAbility.valueOf(passiveName);
-                        playerData.enablePassive(ability);
-                    } catch (IllegalArgumentException e) {
-                        plugin.getLogger().warning("Unknown passive ability: " + passiveName);
-                    }
-                }
+    /**
+     * Reads a player's current record straight from storage without loading it into the cache.
+     * Use for one-off lookups (admin commands) so they don't keep records in memory;
+     * with the mapped store this only touches the page cache. Repeated reads should use
+     * {@link #getOfflinePlayerData(UUID)} instead.
+     * @return null if the player has no record
+     */
+    public PlayerDataSnapshot peekPlayerData(UUID playerId) {
+        PlayerEssenceData cached = getCached(playerId);
+        if (cached != null) {
+            return PlayerDataSnapshot.of(cached);
+        }
+
+        if (writeBehindQueue != null) {
+            PlayerDataSnapshot pending = writeBehindQueue.getPending(playerId);
+            if (pending != null) {
+                return pending;
             }
+        }
+        return store.load(playerId);
+    }
+
+    /**
+     * Marks a player as online and pins their record so it is never evicted (call on join)
+     */
+    public void markOnline(UUID playerId) {
+        synchronized (tierLock) {
+            onlinePlayers.add(playerId);
+            PlayerEssenceData data = offlineCache.remove(playerId);
+            if (data != null) {
+                pinnedCache.putIfAbsent(playerId, data);
+            }
+        }
+    }
+
+    private PlayerEssenceData getCached(UUID playerId) {
+        PlayerEssenceData pinned = pinnedCache.get(playerId);
+        return pinned != null ? pinned : offlineCache.get(playerId);
+    }
+
+    /**
+     * Caches a freshly loaded record in the tier matching the player's online state
+     * @return The record now cached, which may be one a concurrent load installed first
+     */
+    private PlayerEssenceData install(UUID playerId, PlayerEssenceData data) {
+        synchronized (tierLock) {
+            PlayerEssenceData pinned = pinnedCache.get(playerId);
+            if (pinned != null) {
+                return pinned;
+            }
+            if (onlinePlayers.contains(playerId)) {
+                PlayerEssenceData offline = offlineCache.remove(playerId);
+                PlayerEssenceData winner = offline != null ? offline : data;
+                pinnedCache.put(playerId, winner);
+                return winner;
+            }
+            return offlineCache.putIfAbsent(playerId, data);
+        }
+    }
 
-            return playerData;
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+    /**
+     * Saves a record leaving the offline tier if it has unsaved changes
+     */
+    private void persistIfDirty(PlayerEssenceData data) {
+        if (data.isDirty()) {
+            persist(data);
+        }
+    }
+
+    private void persist(PlayerEssenceData data) {
+        // Clean first: a change racing the snapshot re-dirties the record instead of being lost
+        data.markClean();
+        PlayerDataSnapshot snapshot = PlayerDataSnapshot.of(data);
+
+        boolean saved;
+        if (writeBehindQueue == null) {
+            awaitAutosaveWrite();
+            saved = store.save(snapshot);
+            if (!saved) {
+                failedSaves.incrementAndGet();
+            }
+        } else if (!writeBehindQueue.enqueue(snapshot)) {
+            // Queue is full (backpressure) or stopped - write synchronously, after any batch in flight
+            saved = writeBehindQueue.writeThrough(List.of(snapshot)).isEmpty();
+        } else {
+            saved = true;
+        }
+
+        if (!saved) {
+            // Retried by the next autosave or save-all while the record stays cached
+            data.markDirty();
+        }
+    }
+
+    /**
+     * Marks the records behind snapshots a store could not write dirty again, so a later save retries them
+     */
+    /**
+     * Waits for an autosave batch still being written, so an older snapshot in it
+     * can't land after (and overwrite) a newer synchronous save
+     */
+    private void awaitAutosaveWrite() {
+        autosaveWrite.exceptionally(error -> {
+            plugin.getLogger().severe("Autosave batch failed: " + error.getMessage());
             return null;
+        }).join();
+    }
+
+    private void redirty(List<PlayerDataSnapshot> failed) {
+        for (PlayerDataSnapshot snapshot : failed) {
+            PlayerEssenceData data = getCached(snapshot.playerId());
+            if (data != null) {
+                data.markDirty();
+            }
         }
     }
 
+    private PlayerEssenceData loadOrCreate(UUID playerId) {
+        PlayerEssenceData data = loadPlayerData(playerId);
+        return data != null ? data : new PlayerEssenceData(playerId);
+    }
+
     /**
-     * Saves player data to file
+     * Starts the periodic sweep of expired offline records
      */
-    public void savePlayerData(UUID playerId) {
-        PlayerEssenceData playerData = playerDataCache.get(playerId);
-        if (playerData == null) {
+    public void startMaintenanceTask() {
+        long interval = 20L * 60; // Every minute
+        maintenanceTask = Bukkit.getScheduler().runTaskTimer(plugin, offlineCache::expireStale, interval, interval);
+    }
+
+    /**
+     * Starts periodic autosave of changed records, if enabled
+     */
+    public void startAutosaveTask() {
+        if (!config.isAutosaveEnabled()) {
+            return;
+        }
+
+        long interval = 20L * Math.max(1, config.getAutosaveIntervalSeconds());
+        autosaveTask = Bukkit.getScheduler().runTaskTimer(plugin, this::autosave, interval, interval);
+    }
+
+    /**
+     * Saves records changed since the last checkpoint, up to the per-cycle budget.
+     * Records over budget stay dirty and are saved first next cycle, so a burst of
+     * changes never turns into a stop-the-world flush.
+     */
+    private void autosave() {
+        if (!autosaveWrite.isDone()) {
+            // The previous batch is still being written - its records are picked up again next cycle
             return;
         }
 
-        File file = new File(dataFolder, playerId.toString() + ".json");
+        long start = System.nanoTime();
+        if (autosaveBacklog.isEmpty()) {
+            for (PlayerEssenceData data : getAllCached()) {
+                if (data.isDirty()) {
+                    autosaveBacklog.add(data);
+                }
+            }
+        }
+
+        int budget = Math.max(1, config.getAutosaveMaxRecordsPerCycle());
+        List<PlayerDataSnapshot> batch = new ArrayList<>();
+        int saved = 0;
+        while (saved < budget && !autosaveBacklog.isEmpty()) {
+            PlayerEssenceData data = autosaveBacklog.poll();
+            if (!data.isDirty()) continue; // Saved some other way since it was queued
+
+            data.markClean();
+            PlayerDataSnapshot snapshot = PlayerDataSnapshot.of(data);
+            if (writeBehindQueue == null) {
+                batch.add(snapshot);
+            } else if (!writeBehindQueue.enqueue(snapshot)) {
+                // Queue is full - back off until the next cycle rather than writing on the main thread
+                data.markDirty();
+                autosaveBacklog.addFirst(data);
+                break;
+            }
+            saved++;
+        }
+
+        // Without write-behind the batch is written on the loader threads, off the main thread
+        if (!batch.isEmpty()) {
+            autosaveWrite = CompletableFuture.runAsync(() -> {
+                List<PlayerDataSnapshot> failed = store.saveAll(batch);
+                failedSaves.addAndGet(failed.size());
+                redirty(failed);
+            }, loadExecutor);
+        }
+
+        autosaveCycles++;
+        autosavedRecords += saved;
+        lastAutosaveRecords = saved;
+        lastAutosaveNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Loads player data at startup according to the configured load mode
+     */
+    public void loadStartupPlayerData() {
+        if (config.isLazyLoadEnabled()) {
+            warmRecentPlayerData(config.getWarmRecentDays());
+        } else {
+            loadAllPlayerData();
+        }
+    }
+
+    /**
+     * Loads all player data into cache. Eager records are pinned, ignoring the offline cache bounds.
+     */
+    public void loadAllPlayerData() {
+        long start = System.nanoTime();
+        List<PlayerDataSnapshot> records = store.loadAll();
+
+        for (PlayerDataSnapshot snapshot : records) {
+            pinnedCache.put(snapshot.playerId(), snapshot.toPlayerData());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        startupLoadReport = new StartupLoadReport("eager", records.size(), records.size(), elapsedMillis, 0, 0);
+        plugin.getLogger().info("Loaded " + records.size() + " player essence records from " + store.getName() + " storage");
+    }
+
+    /**
+     * Lazy mode startup: only loads players whose data changed in the last few days.
+     * Everyone else is loaded on pre-login or first lookup.
+     */
+    public void warmRecentPlayerData(int recentDays) {
+        long start = System.nanoTime();
+        int stored = store.count();
+
+        List<PlayerDataSnapshot> recent = recentDays > 0
+                ? store.loadActiveSince(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(recentDays))
+                : List.of();
+        // Warming past the offline cache size would only evict what was just loaded
+        if (recent.size() > offlineCache.getMaxSize()) {
+            recent = recent.subList(0, offlineCache.getMaxSize());
+        }
+        for (PlayerDataSnapshot snapshot : recent) {
+            install(snapshot.playerId(), snapshot.toPlayerData());
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+
+        // Estimate what loading the skipped records eagerly would have cost
+        int warmed = recent.size();
+        int skipped = Math.max(0, stored - warmed);
+        long perRecordNanos = warmed > 0 ? elapsedNanos / warmed : sampleLoadNanos();
+        long savedMillis = TimeUnit.NANOSECONDS.toMillis(perRecordNanos * skipped);
+        long savedBytes = (long) skipped * ESTIMATED_RECORD_BYTES;
 
-        Map<String, Object> data = new HashMap<>();
-        data.put("totalStormEssence", playerData.getTotalStormEssence());
+        startupLoadReport = new StartupLoadReport("lazy", stored, warmed, elapsedMillis, savedMillis, savedBytes);
+        plugin.getLogger().info("Lazy load: warmed " + warmed + " of " + stored + " player essence records in "
+                + elapsedMillis + "ms (saved ~" + savedMillis + "ms and ~" + (savedBytes / 1024) + " KB heap vs eager load)");
+    }
+
+    /**
+     * Measures the average load time of a few records without caching them
+     */
+    private long sampleLoadNanos() {
+        List<UUID> playerIds = store.listPlayerIds();
+        int sampled = Math.min(LOAD_COST_SAMPLE_SIZE, playerIds.size());
+        if (sampled == 0) {
+            return 0;
+        }
 
-        List<String> activePassives = new ArrayList<>();
-        for (PassiveAbility ability : playerData.getActivePassives()) {
-            activePassives.add(ability.name());
+        long start = System.nanoTime();
+        for (UUID playerId : playerIds.subList(0, sampled)) {
+            store.load(playerId);
         }
-        data.put("activePassives", activePassives);
+        return (System.nanoTime() - start) / sampled;
+    }
 
-        try (FileWriter writer = new FileWriter(file)) {
-            gson.toJson(data, writer);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save player data for " + playerId + ": " + e.getMessage());
+    /**
+     * Loads player data from storage
+     */
+    private PlayerEssenceData loadPlayerData(UUID playerId) {
+        // A queued save is newer than whatever is in storage
+        if (writeBehindQueue != null) {
+            PlayerDataSnapshot pending = writeBehindQueue.getPending(playerId);
+            if (pending != null) {
+                return pending.toPlayerData();
+            }
         }
+
+        PlayerDataSnapshot snapshot = store.load(playerId);
+        return snapshot != null ? snapshot.toPlayerData() : null;
     }
 
     /**
-     * Saves all cached player data
+     * Saves player data (queued when write-behind is enabled)
+     */
+    public void savePlayerData(UUID playerId) {
+        PlayerEssenceData playerData = pinnedCache.get(playerId);
+        if (playerData == null) {
+            playerData = offlineCache.get(playerId);
+        }
+        if (playerData != null) {
+            persist(playerData);
+        }
+    }
+
+    /**
+     * Saves all cached player data that changed since it was last saved.
+     * Anything not queued is written as a single batch.
      */
     public void saveAllPlayerData() {
-        for (UUID playerId : playerDataCache.keySet()) {
-            savePlayerData(playerId);
+        List<PlayerEssenceData> cached = getAllCached();
+        List<PlayerDataSnapshot> batch = new ArrayList<>();
+        int saved = 0;
+        for (PlayerEssenceData playerData : cached) {
+            if (!playerData.isDirty()) continue;
+
+            saved++;
+            playerData.markClean();
+            PlayerDataSnapshot snapshot = PlayerDataSnapshot.of(playerData);
+
+            if (writeBehindQueue == null || !writeBehindQueue.enqueue(snapshot)) {
+                batch.add(snapshot);
+            }
+        }
+
+        List<PlayerDataSnapshot> failed;
+        if (writeBehindQueue != null) {
+            failed = writeBehindQueue.writeThrough(batch);
+        } else {
+            awaitAutosaveWrite();
+            failed = store.saveAll(batch);
+            failedSaves.addAndGet(failed.size());
         }
-        plugin.getLogger().info("Saved " + playerDataCache.size() + " player essence data files");
+        redirty(failed);
+        plugin.getLogger().info("Saved " + (saved - failed.size()) + " of " + cached.size() + " cached player essence records (others unchanged)");
+        if (!failed.isEmpty()) {
+            plugin.getLogger().severe(failed.size() + " player essence records could not be saved");
+        }
+    }
+
+    private List<PlayerEssenceData> getAllCached() {
+        List<PlayerEssenceData> cached = new ArrayList<>(pinnedCache.values());
+        cached.addAll(offlineCache.values());
+        return cached;
     }
 
     /**
-     * Removes player from cache (call on logout)
+     * Looks up the players with the most lifetime storm essence without blocking the main thread.
+     * The storage query runs on a loader thread; the callback runs on the main thread with
+     * cached (possibly unsaved) records merged in.
+     */
+    public void getTopByEssence(int limit, Consumer<List<PlayerDataSnapshot>> callback) {
+        CompletableFuture.supplyAsync(() -> store.topByEssence(limit), loadExecutor)
+                .thenAccept(stored -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    Map<UUID, PlayerDataSnapshot> merged = new HashMap<>();
+                    for (PlayerDataSnapshot snapshot : stored) {
+                        merged.put(snapshot.playerId(), snapshot);
+                    }
+                    for (PlayerEssenceData playerData : getAllCached()) {
+                        merged.put(playerData.getPlayerId(), PlayerDataSnapshot.of(playerData));
+                    }
+
+                    List<PlayerDataSnapshot> top = new ArrayList<>(merged.values());
+                    top.sort(Comparator.comparingDouble(PlayerDataSnapshot::totalStormEssence).reversed());
+                    callback.accept(top.subList(0, Math.min(limit, top.size())));
+                }));
+    }
+
+    /**
+     * Saves a player's record and moves it to the offline tier (call on logout),
+     * so a quick reconnect doesn't have to load it again
      */
     public void unloadPlayerData(UUID playerId) {
-        savePlayerData(playerId);
-        playerDataCache.remove(playerId);
+        synchronized (tierLock) {
+            onlinePlayers.remove(playerId);
+            PlayerEssenceData data = pinnedCache.remove(playerId);
+            if (data != null) {
+                persist(data);
+                offlineCache.putIfAbsent(playerId, data);
+                return;
+            }
+        }
+
+        // Record never got pinned (e.g. the player left before the prefetch finished)
+        PlayerEssenceData offline = offlineCache.get(playerId);
+        if (offline != null) {
+            persistIfDirty(offline);
+        }
+    }
+
+    /**
+     * Saves everything and drains the write-behind queue (call on disable)
+     */
+    public void shutdown() {
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel();
+        }
+        if (autosaveTask != null) {
+            autosaveTask.cancel();
+        }
+        // Let an autosave batch finish rather than interrupting its writes
+        awaitAutosaveWrite();
+        loadExecutor.shutdownNow();
+
+        if (writeBehindQueue != null) {
+            // Stop the queue first so the final save is written synchronously after older queued saves
+            writeBehindQueue.shutdown(config.getWriteBehindShutdownTimeoutSeconds());
+        }
+        saveAllPlayerData();
+        store.close();
+    }
+
+    /**
+     * @return The active storage backend
+     */
+    public PlayerDataStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return How player data was loaded at startup, or null before startup loading ran
+     */
+    public StartupLoadReport getStartupLoadReport() {
+        return startupLoadReport;
+    }
+
+    public long getPrefetches() {
+        return prefetches.get();
+    }
+
+    /**
+     * @return Number of main-thread lookups answered with a placeholder while a prefetch was running
+     */
+    public long getPlaceholdersServed() {
+        return placeholdersServed.get();
+    }
+
+    /**
+     * @return Number of records that had to be read from disk on the main thread
+     */
+    public long getMainThreadLoads() {
+        return mainThreadLoads.get();
+    }
+
+    /**
+     * @return Records a synchronous save (no write-behind) failed to write, kept dirty for a retry
+     */
+    public long getFailedSaves() {
+        return failedSaves.get();
+    }
+
+    public long getAutosaveCycles() {
+        return autosaveCycles;
+    }
+
+    public long getAutosavedRecords() {
+        return autosavedRecords;
+    }
+
+    public int getLastAutosaveRecords() {
+        return lastAutosaveRecords;
+    }
+
+    public long getLastAutosaveMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastAutosaveNanos);
+    }
+
+    /**
+     * @return Dirty records waiting for a later autosave cycle because of the budget
+     */
+    public int getAutosaveBacklog() {
+        return autosaveBacklog.size();
+    }
+
+    public int getPinnedCount() {
+        return pinnedCache.size();
+    }
+
+    public OfflineDataCache getOfflineCache() {
+        return offlineCache;
+    }
+
+    /**
+     * @return The write-behind queue, or null if write-behind is disabled
+     */
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
     }
 }
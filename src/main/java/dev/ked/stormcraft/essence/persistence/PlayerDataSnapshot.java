@@ -0,0 +1,39 @@
+package dev.ked.stormcraft.essence.persistence;
+
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.model.PlayerEssenceData;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a player's persisted essence state.
+ * Can be taken on any thread and written from a background thread.
+ */
+public record PlayerDataSnapshot(UUID playerId, double totalStormEssence, Set<PassiveAbility> activePassives,
+                                 PassiveAbility selectedActiveAbility, double balance) {
+
+    /**
+     * Captures the current state of the given player data
+     */
+    public static PlayerDataSnapshot of(PlayerEssenceData data) {
+        // The passive set is already an immutable copy, so it can be shared
+        return new PlayerDataSnapshot(data.getPlayerId(), data.getTotalStormEssence(),
+                data.getActivePassives(), data.getSelectedActiveAbility(), data.getBalance());
+    }
+
+    /**
+     * Rebuilds live player data from this snapshot
+     */
+    public PlayerEssenceData toPlayerData() {
+        PlayerEssenceData data = new PlayerEssenceData(playerId);
+        data.addStormEssence(totalStormEssence);
+        for (PassiveAbility ability : activePassives) {
+            data.enablePassive(ability);
+        }
+        data.setSelectedActiveAbility(selectedActiveAbility);
+        data.setBalance(balance);
+        data.markClean();
+        return data;
+    }
+}
@@ -0,0 +1,15 @@
+package dev.ked.stormcraft.essence.persistence;
+
+/**
+ * Summary of how player data was loaded at startup, compared against an eager full load.
+ *
+ * @param mode                 "eager" or "lazy"
+ * @param recordsOnDisk        Number of player records found in storage
+ * @param recordsLoaded        Number of records parsed into the cache at startup
+ * @param loadMillis           Time spent loading at startup
+ * @param estimatedSavedMillis Estimated startup time avoided compared with eager mode
+ * @param estimatedSavedBytes  Estimated heap avoided compared with eager mode
+ */
+public record StartupLoadReport(String mode, int recordsOnDisk, int recordsLoaded, long loadMillis,
+                                long estimatedSavedMillis, long estimatedSavedBytes) {
+}
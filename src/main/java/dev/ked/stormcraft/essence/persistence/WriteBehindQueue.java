@@ -0,0 +1,297 @@
+package dev.ked.stormcraft.essence.persistence;
+
+import dev.ked.stormcraft.essence.StormcraftEssencePlugin;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded write-behind queue for player data saves.
+ * Saves are coalesced per player and flushed in batches on a background I/O thread,
+ * so the main thread only pays for taking a snapshot.
+ */
+public class WriteBehindQueue {
+    private final StormcraftEssencePlugin plugin;
+    // Writes a batch and returns the snapshots it could not write
+    private final Function<List<PlayerDataSnapshot>, List<PlayerDataSnapshot>> batchWriter;
+    private final int capacity;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+
+    // Pending snapshots in arrival order (guarded by itself)
+    private final LinkedHashMap<UUID, PlayerDataSnapshot> pending = new LinkedHashMap<>();
+    // Snapshots currently being written, so loads never read a stale file
+    private final Map<UUID, PlayerDataSnapshot> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    // Held around every store write, so the store never sees two writers and a write-through can't be overtaken
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushedRecords = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong failedRecords = new AtomicLong();
+    private volatile int highWaterMark;
+    private volatile long lastFlushNanos;
+
+    public WriteBehindQueue(StormcraftEssencePlugin plugin, Function<List<PlayerDataSnapshot>, List<PlayerDataSnapshot>> batchWriter,
+                            int capacity, int batchSize, long flushIntervalMillis) {
+        this.plugin = plugin;
+        this.batchWriter = batchWriter;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Stormcraft-Essence-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = Math.max(50L, flushIntervalMillis);
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a snapshot for writing, replacing any pending snapshot for the same player.
+     * @return false if the queue is full or shut down - the caller must write synchronously
+     */
+    public boolean enqueue(PlayerDataSnapshot snapshot) {
+        if (!running) {
+            return false;
+        }
+
+        int depth;
+        synchronized (pending) {
+            if (pending.containsKey(snapshot.playerId())) {
+                // Re-insert so coalesced saves keep arrival order fair
+                pending.remove(snapshot.playerId());
+                pending.put(snapshot.playerId(), snapshot);
+                coalesced.incrementAndGet();
+                return true;
+            }
+
+            if (pending.size() >= capacity) {
+                rejected.incrementAndGet();
+                return false;
+            }
+
+            pending.put(snapshot.playerId(), snapshot);
+            depth = pending.size();
+        }
+
+        enqueued.incrementAndGet();
+        if (depth > highWaterMark) {
+            highWaterMark = depth;
+        }
+
+        // Don't wait for the next interval once a full batch is ready
+        if (depth >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the newest snapshot for a player that has not reached disk yet
+     * @return null if nothing is pending for this player
+     */
+    public PlayerDataSnapshot getPending(UUID playerId) {
+        synchronized (pending) {
+            PlayerDataSnapshot snapshot = pending.get(playerId);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return inFlight.get(playerId);
+    }
+
+    /**
+     * Writes snapshots straight to the store, for saves the queue refused (full or shut down).
+     * Waits for any batch being written, and drops older queued snapshots for the same players,
+     * so a stale record can never land on top of these.
+     * @return The snapshots that could not be written (the caller keeps their records dirty)
+     */
+    public List<PlayerDataSnapshot> writeThrough(List<PlayerDataSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return List.of();
+        }
+
+        writeLock.lock();
+        try {
+            synchronized (pending) {
+                for (PlayerDataSnapshot snapshot : snapshots) {
+                    pending.remove(snapshot.playerId());
+                }
+            }
+            List<PlayerDataSnapshot> failed = batchWriter.apply(snapshots);
+            failedRecords.addAndGet(failed.size());
+            return failed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending snapshots in batches. A batch that fails goes back in the queue
+     * (behind any newer snapshot for the same player) and is retried on the next flush.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        long start = System.nanoTime();
+        boolean wroteAny = false;
+
+        while (true) {
+            writeLock.lock();
+            try {
+                List<PlayerDataSnapshot> batch = takeBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                wroteAny = true;
+
+                List<PlayerDataSnapshot> failed;
+                try {
+                    failed = batchWriter.apply(batch);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().severe("Failed to flush " + batch.size() + " player data records: " + e.getMessage());
+                    failed = batch;
+                }
+
+                flushedRecords.addAndGet(batch.size() - failed.size());
+                flushedBatches.incrementAndGet();
+                // Requeue before leaving in-flight, so loads never fall back to the stale stored record
+                if (!failed.isEmpty()) {
+                    requeue(failed);
+                }
+                for (PlayerDataSnapshot snapshot : batch) {
+                    inFlight.remove(snapshot.playerId(), snapshot);
+                }
+                if (!failed.isEmpty()) {
+                    // The store is failing - leave the rest for the next flush rather than spin on it
+                    plugin.getLogger().warning("Requeued " + failed.size() + " player data records, will retry on the next flush");
+                    break;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        if (wroteAny) {
+            lastFlushNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Puts a failed batch back, unless a newer snapshot was queued for the player meanwhile
+     */
+    private void requeue(List<PlayerDataSnapshot> batch) {
+        synchronized (pending) {
+            for (PlayerDataSnapshot snapshot : batch) {
+                pending.putIfAbsent(snapshot.playerId(), snapshot);
+            }
+        }
+        failedRecords.addAndGet(batch.size());
+    }
+
+    private List<PlayerDataSnapshot> takeBatch() {
+        List<PlayerDataSnapshot> batch = new ArrayList<>(batchSize);
+        synchronized (pending) {
+            Iterator<PlayerDataSnapshot> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                PlayerDataSnapshot snapshot = iterator.next();
+                iterator.remove();
+                inFlight.put(snapshot.playerId(), snapshot);
+                batch.add(snapshot);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Stops the I/O thread and writes everything still queued.
+     * Anything saved after this call must be written synchronously.
+     */
+    public void shutdown(long timeoutSeconds) {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Player data I/O thread did not stop in time, finishing flush on main thread");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // Drain whatever the worker did not get to (waits for a write the worker is still in)
+        flush();
+
+        int unwritten = getDepth();
+        if (unwritten > 0) {
+            plugin.getLogger().severe(unwritten + " player data records could not be written before shutdown");
+        }
+    }
+
+    public int getDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return Number of saves that hit a full queue and fell back to a synchronous write
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFlushedRecords() {
+        return flushedRecords.get();
+    }
+
+    public long getFlushedBatches() {
+        return flushedBatches.get();
+    }
+
+    /**
+     * @return Records whose write failed: queued again, or handed back to the caller on a write-through
+     */
+    public long getFailedRecords() {
+        return failedRecords.get();
+    }
+
+    public long getLastFlushMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastFlushNanos);
+    }
+}
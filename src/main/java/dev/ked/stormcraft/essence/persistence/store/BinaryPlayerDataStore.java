@@ -0,0 +1,184 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Stores each player as a fixed-size {@link PlayerRecordCodec} record in playerdata/.
+ * Legacy JSON files are read transparently and converted the first time they are loaded;
+ * the original is moved to playerdata/legacy-json/ rather than deleted.
+ */
+public class BinaryPlayerDataStore implements PlayerDataStore {
+    private static final String EXTENSION = ".dat";
+
+    private final Plugin plugin;
+    private final File dataFolder;
+    private final File legacyFolder;
+    private final JsonPlayerDataStore legacyStore;
+
+    public BinaryPlayerDataStore(Plugin plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFolder = dataFolder;
+        this.legacyFolder = new File(dataFolder, "legacy-json");
+        this.legacyStore = new JsonPlayerDataStore(plugin, dataFolder);
+    }
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public PlayerDataSnapshot load(UUID playerId) {
+        File file = recordFile(playerId);
+        if (file.exists()) {
+            return read(file);
+        }
+        return migrate(playerId);
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadAll() {
+        return loadActiveSince(0L);
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadActiveSince(long sinceMillis) {
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        for (File file : listRecordFiles()) {
+            // Every save rewrites the file, so its timestamp tracks last activity
+            if (file.lastModified() < sinceMillis) continue;
+
+            PlayerDataSnapshot snapshot = read(file);
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+
+        // Legacy files are converted as they are found
+        for (PlayerDataSnapshot legacy : legacyStore.loadActiveSince(sinceMillis)) {
+            if (recordFile(legacy.playerId()).exists()) continue; // Already converted, binary is newer
+            convert(legacy);
+            snapshots.add(legacy);
+        }
+        return snapshots;
+    }
+
+    @Override
+    public List<UUID> listPlayerIds() {
+        Set<UUID> playerIds = new LinkedHashSet<>();
+        for (File file : listRecordFiles()) {
+            UUID playerId = parsePlayerId(file);
+            if (playerId != null) {
+                playerIds.add(playerId);
+            }
+        }
+        playerIds.addAll(legacyStore.listPlayerIds());
+        return new ArrayList<>(playerIds);
+    }
+
+    @Override
+    public int count() {
+        return listRecordFiles().length + legacyStore.count();
+    }
+
+    @Override
+    public boolean save(PlayerDataSnapshot snapshot) {
+        Path target = recordFile(snapshot.playerId()).toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try {
+            // Write then rename so a crash never leaves a torn record behind
+            Files.write(temp, PlayerRecordCodec.encode(snapshot));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to save player data for " + snapshot.playerId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Has to read every file - prefer the SQL store for leaderboards on large servers
+     */
+    @Override
+    public List<PlayerDataSnapshot> topByEssence(int limit) {
+        List<PlayerDataSnapshot> all = loadAll();
+        all.sort(Comparator.comparingDouble(PlayerDataSnapshot::totalStormEssence).reversed());
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    /**
+     * Converts a legacy JSON record to the binary format
+     * @return null if the player has no legacy record
+     */
+    private synchronized PlayerDataSnapshot migrate(UUID playerId) {
+        // Another thread may have converted it while we waited
+        File file = recordFile(playerId);
+        if (file.exists()) {
+            return read(file);
+        }
+
+        PlayerDataSnapshot snapshot = legacyStore.load(playerId);
+        if (snapshot != null) {
+            convert(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the binary record and retires the JSON file it came from
+     */
+    private synchronized void convert(PlayerDataSnapshot snapshot) {
+        UUID playerId = snapshot.playerId();
+        if (!save(snapshot)) {
+            return; // Keep reading the JSON file until the binary record is written
+        }
+        try {
+            legacyFolder.mkdirs();
+            String jsonName = playerId + ".json";
+            Files.move(new File(dataFolder, jsonName).toPath(), new File(legacyFolder, jsonName).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Converted player data for " + playerId + " but could not move the JSON file: " + e.getMessage());
+        }
+    }
+
+    private PlayerDataSnapshot read(File file) {
+        try {
+            PlayerDataSnapshot snapshot = PlayerRecordCodec.decode(Files.readAllBytes(file.toPath()));
+            if (snapshot == null) {
+                plugin.getLogger().severe("Unsupported or truncated player data file: " + file.getName());
+            }
+            return snapshot;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load player data file " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private File recordFile(UUID playerId) {
+        return new File(dataFolder, playerId + EXTENSION);
+    }
+
+    private File[] listRecordFiles() {
+        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        return files != null ? files : new File[0];
+    }
+
+    private UUID parsePlayerId(File file) {
+        try {
+            return UUID.fromString(file.getName().replace(EXTENSION, ""));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid player data file: " + file.getName());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import org.bukkit.plugin.Plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compares the JSON file format against {@link PlayerRecordCodec} on synthetic records.
+ * Runs in memory only (no disk I/O) so it measures serialization cost alone.
+ * Call off the main thread.
+ */
+public final class CodecBenchmark {
+    private static final int WARMUP_ROUNDS = 2;
+
+    // Decoded values are published here so the JIT cannot skip the decode loops
+    private static volatile double blackhole;
+
+    /**
+     * Throughput and size for one format
+     */
+    public record Result(String format, double encodesPerSecond, double decodesPerSecond, double bytesPerRecord) {
+    }
+
+    private CodecBenchmark() {
+    }
+
+    /**
+     * @return Results for the JSON format then the binary codec
+     */
+    public static List<Result> run(Plugin plugin, int records) {
+        JsonPlayerDataStore json = new JsonPlayerDataStore(plugin, new File(plugin.getDataFolder(), "playerdata"));
+        List<PlayerDataSnapshot> snapshots = generate(records);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measureJson(json, snapshots);
+            measureBinary(snapshots);
+        }
+
+        return List.of(measureJson(json, snapshots), measureBinary(snapshots));
+    }
+
+    private static Result measureJson(JsonPlayerDataStore json, List<PlayerDataSnapshot> snapshots) {
+        byte[][] encoded = new byte[snapshots.size()][];
+        long totalBytes = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < snapshots.size(); i++) {
+            encoded[i] = json.toJson(snapshots.get(i)).getBytes(StandardCharsets.UTF_8);
+            totalBytes += encoded[i].length;
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        double sink = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < encoded.length; i++) {
+            InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(encoded[i]), StandardCharsets.UTF_8);
+            sink += json.fromJson(snapshots.get(i).playerId(), reader).totalStormEssence();
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        return result("json", snapshots.size(), encodeNanos, decodeNanos, totalBytes, sink);
+    }
+
+    private static Result measureBinary(List<PlayerDataSnapshot> snapshots) {
+        byte[][] encoded = new byte[snapshots.size()][];
+        long totalBytes = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < snapshots.size(); i++) {
+            encoded[i] = PlayerRecordCodec.encode(snapshots.get(i));
+            totalBytes += encoded[i].length;
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        double sink = 0;
+        start = System.nanoTime();
+        for (byte[] bytes : encoded) {
+            sink += PlayerRecordCodec.decode(bytes).totalStormEssence();
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        return result("binary v" + PlayerRecordCodec.VERSION, snapshots.size(), encodeNanos, decodeNanos, totalBytes, sink);
+    }
+
+    private static Result result(String format, int records, long encodeNanos, long decodeNanos, long totalBytes, double sink) {
+        blackhole = sink;
+        return new Result(format,
+                records * 1_000_000_000.0 / Math.max(1, encodeNanos),
+                records * 1_000_000_000.0 / Math.max(1, decodeNanos),
+                (double) totalBytes / records);
+    }
+
+    /**
+     * Realistic spread of records: most players have a few passives and some have a selected ability
+     */
+    private static List<PlayerDataSnapshot> generate(int records) {
+        Random random = new Random(42);
+        PassiveAbility[] abilities = PassiveAbility.values();
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>(records);
+
+        for (int i = 0; i < records; i++) {
+            Set<PassiveAbility> passives = EnumSet.noneOf(PassiveAbility.class);
+            for (PassiveAbility ability : abilities) {
+                if (ability.isPassive() && random.nextBoolean()) {
+                    passives.add(ability);
+                }
+            }
+            PassiveAbility selected = random.nextBoolean() ? abilities[random.nextInt(abilities.length)] : null;
+            snapshots.add(new PlayerDataSnapshot(UUID.randomUUID(), random.nextDouble() * 100_000,
+                    Collections.unmodifiableSet(passives), selected, random.nextDouble() * 10_000));
+        }
+        return snapshots;
+    }
+}
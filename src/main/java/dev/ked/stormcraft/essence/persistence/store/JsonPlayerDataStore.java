@@ -0,0 +1,207 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * Stores each player as a pretty-printed JSON file in playerdata/.
+ */
+public class JsonPlayerDataStore implements PlayerDataStore {
+    private final Plugin plugin;
+    private final File dataFolder;
+    private final Gson gson;
+
+    public JsonPlayerDataStore(Plugin plugin, File dataFolder) {
+        this.plugin = plugin;
+        this.dataFolder = dataFolder;
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+
+        // Create data folder if it doesn't exist
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public PlayerDataSnapshot load(UUID playerId) {
+        File file = new File(dataFolder, playerId.toString() + ".json");
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (FileReader reader = new FileReader(file)) {
+            return fromJson(playerId, reader);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parses a record in the JSON file format
+     */
+    public PlayerDataSnapshot fromJson(UUID playerId, Reader reader) {
+        Type type = new TypeToken<Map<String, Object>>() {}.getType();
+        Map<String, Object> data = gson.fromJson(reader, type);
+
+        // Load total storm essence
+        double totalStormEssence = 0.0;
+        if (data.containsKey("totalStormEssence")) {
+            totalStormEssence = ((Number) data.get("totalStormEssence")).doubleValue();
+        }
+
+        // Load active passives
+        Set<PassiveAbility> activePassives = EnumSet.noneOf(PassiveAbility.class);
+        if (data.containsKey("activePassives")) {
+            List<String> passives = (List<String>) data.get("activePassives");
+            for (String passiveName : passives) {
+                PassiveAbility ability = parseAbility(passiveName);
+                if (ability != null) {
+                    activePassives.add(ability);
+                }
+            }
+        }
+
+        // Load selected compass ability
+        PassiveAbility selectedActiveAbility = null;
+        if (data.containsKey("selectedActiveAbility")) {
+            selectedActiveAbility = parseAbility((String) data.get("selectedActiveAbility"));
+        }
+
+        // Load native essence balance
+        double balance = 0.0;
+        if (data.containsKey("balance")) {
+            balance = ((Number) data.get("balance")).doubleValue();
+        }
+
+        return new PlayerDataSnapshot(playerId, totalStormEssence, Collections.unmodifiableSet(activePassives),
+                selectedActiveAbility, balance);
+    }
+
+    /**
+     * Formats a record in the JSON file format
+     */
+    public String toJson(PlayerDataSnapshot snapshot) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("totalStormEssence", snapshot.totalStormEssence());
+
+        List<String> activePassives = new ArrayList<>();
+        for (PassiveAbility ability : snapshot.activePassives()) {
+            activePassives.add(ability.name());
+        }
+        data.put("activePassives", activePassives);
+
+        if (snapshot.selectedActiveAbility() != null) {
+            data.put("selectedActiveAbility", snapshot.selectedActiveAbility().name());
+        }
+
+        if (snapshot.balance() != 0.0) {
+            data.put("balance", snapshot.balance());
+        }
+
+        return gson.toJson(data);
+    }
+
+    private PassiveAbility parseAbility(String name) {
+        try {
+            return PassiveAbility.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown passive ability: " + name);
+            return null;
+        }
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadAll() {
+        return loadActiveSince(0L);
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadActiveSince(long sinceMillis) {
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        for (File file : listDataFiles()) {
+            // Every save rewrites the file, so its timestamp tracks last activity
+            if (file.lastModified() < sinceMillis) continue;
+
+            UUID playerId = parsePlayerId(file);
+            if (playerId == null) continue;
+
+            PlayerDataSnapshot snapshot = load(playerId);
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    @Override
+    public List<UUID> listPlayerIds() {
+        List<UUID> playerIds = new ArrayList<>();
+        for (File file : listDataFiles()) {
+            UUID playerId = parsePlayerId(file);
+            if (playerId != null) {
+                playerIds.add(playerId);
+            }
+        }
+        return playerIds;
+    }
+
+    @Override
+    public int count() {
+        return listDataFiles().length;
+    }
+
+    @Override
+    public boolean save(PlayerDataSnapshot snapshot) {
+        File file = new File(dataFolder, snapshot.playerId().toString() + ".json");
+
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(toJson(snapshot));
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to save player data for " + snapshot.playerId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Has to parse every file - prefer the SQL store for leaderboards on large servers
+     */
+    @Override
+    public List<PlayerDataSnapshot> topByEssence(int limit) {
+        List<PlayerDataSnapshot> all = loadAll();
+        all.sort(Comparator.comparingDouble(PlayerDataSnapshot::totalStormEssence).reversed());
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    private File[] listDataFiles() {
+        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".json"));
+        return files != null ? files : new File[0];
+    }
+
+    private UUID parsePlayerId(File file) {
+        try {
+            return UUID.fromString(file.getName().replace(".json", ""));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid player data file: " + file.getName());
+            return null;
+        }
+    }
+}
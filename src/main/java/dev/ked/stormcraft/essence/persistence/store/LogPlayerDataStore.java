@@ -0,0 +1,561 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Stores player records in segmented append-only log files in playerdata/log/.
+ * Every save appends a fixed-size entry to the active segment and points an
+ * in-memory UUID index at it, so nothing is ever rewritten in place. Startup
+ * rebuilds the index with one sequential read per segment.
+ *
+ * Once enough of the sealed segments is superseded, a background compaction
+ * copies the live entries into a fresh segment and deletes the old ones.
+ *
+ * Segment layout: magic, format version, segment id (16 bytes), then entries of
+ * sequence, saved-at millis, a {@link PlayerRecordCodec} record and a CRC32.
+ * The highest sequence wins when the same player appears more than once, so
+ * segment order never matters and a crash mid-compaction only leaves duplicates.
+ */
+public class LogPlayerDataStore implements PlayerDataStore {
+    private static final int MAGIC = 0x53434C47; // "SCLG"
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16 + PlayerRecordCodec.RECORD_SIZE + 4;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Plugin plugin;
+    private final File logFolder;
+    private final long segmentSizeBytes;
+    private final double compactionThreshold;
+    private final ExecutorService compactor;
+
+    // All state below is guarded by this
+    private final Map<UUID, IndexEntry> index = new HashMap<>();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment activeSegment;
+    private long nextSequence = 1;
+    private long nextSegmentId = 1;
+    private boolean compacting;
+    private long compactions;
+    private long reclaimedBytes;
+
+    /**
+     * Where the latest entry for a player lives
+     */
+    private record IndexEntry(long segmentId, long offset, long sequence, long savedAt) {
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        private int entries;
+        private int live;
+
+        private Segment(long id, File file, FileChannel channel, long size) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private LogPlayerDataStore(Plugin plugin, File logFolder, long segmentSizeBytes, double compactionThreshold) {
+        this.plugin = plugin;
+        this.logFolder = logFolder;
+        this.segmentSizeBytes = Math.max(segmentSizeBytes, HEADER_SIZE + (long) ENTRY_SIZE * MIN_ENTRIES_PER_SEGMENT);
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Stormcraft-Essence-Compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the log and rebuilds the index from its segments
+     * @return null if the log could not be opened
+     */
+    public static LogPlayerDataStore open(Plugin plugin, File logFolder, long segmentSizeBytes, double compactionThreshold) {
+        LogPlayerDataStore store = new LogPlayerDataStore(plugin, logFolder, segmentSizeBytes, compactionThreshold);
+        try {
+            logFolder.mkdirs();
+            long start = System.nanoTime();
+            synchronized (store) {
+                store.rebuildIndex();
+                store.openActiveSegment();
+                plugin.getLogger().info("Indexed " + store.index.size() + " player essence records from "
+                        + store.segments.size() + " log segments in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+            }
+            return store;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open player data log: " + e.getMessage());
+            store.close();
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public synchronized String getStatus() {
+        int entries = 0;
+        for (Segment segment : segments.values()) {
+            entries += segment.entries;
+        }
+        return String.format("log, %d segments, %d live / %d superseded records, %d compactions (%d KB reclaimed)",
+                segments.size(), index.size(), entries - index.size(), compactions, reclaimedBytes / 1024);
+    }
+
+    @Override
+    public synchronized PlayerDataSnapshot load(UUID playerId) {
+        IndexEntry entry = index.get(playerId);
+        if (entry == null) {
+            return null;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+            readFully(segments.get(entry.segmentId()).channel, buffer, entry.offset());
+            return decodeEntry(buffer, 0);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadAll() {
+        return loadActiveSince(0L);
+    }
+
+    /**
+     * Reads each segment holding a matching record once, sequentially
+     */
+    @Override
+    public synchronized List<PlayerDataSnapshot> loadActiveSince(long sinceMillis) {
+        Map<Long, List<IndexEntry>> bySegment = new TreeMap<>();
+        for (IndexEntry entry : index.values()) {
+            if (entry.savedAt() >= sinceMillis) {
+                bySegment.computeIfAbsent(entry.segmentId(), id -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<Long, List<IndexEntry>> segmentEntries : bySegment.entrySet()) {
+            Segment segment = segments.get(segmentEntries.getKey());
+            try {
+                ByteBuffer buffer = readSegment(segment);
+                for (IndexEntry entry : segmentEntries.getValue()) {
+                    PlayerDataSnapshot snapshot = decodeEntry(buffer, (int) entry.offset());
+                    if (snapshot != null) {
+                        snapshots.add(snapshot);
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to read player data segment " + segment.file.getName() + ": " + e.getMessage());
+            }
+        }
+        return snapshots;
+    }
+
+    @Override
+    public synchronized List<UUID> listPlayerIds() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    @Override
+    public synchronized int count() {
+        return index.size();
+    }
+
+    @Override
+    public boolean save(PlayerDataSnapshot snapshot) {
+        return saveAll(List.of(snapshot)).isEmpty();
+    }
+
+    /**
+     * Appends the batch to the active segment, rolling to a new segment when it fills up
+     */
+    @Override
+    public synchronized List<PlayerDataSnapshot> saveAll(Collection<PlayerDataSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return List.of();
+        }
+        List<PlayerDataSnapshot> batch = new ArrayList<>(snapshots);
+        if (activeSegment == null) {
+            return batch;
+        }
+
+        long now = System.currentTimeMillis();
+        List<PlayerDataSnapshot> failed = List.of();
+        int from = 0;
+        try {
+            while (from < batch.size()) {
+                int room = (int) ((segmentSizeBytes - activeSegment.size) / ENTRY_SIZE);
+                if (room <= 0) {
+                    rollSegment();
+                    continue;
+                }
+
+                int to = Math.min(batch.size(), from + room);
+                append(batch.subList(from, to), now);
+                from = to;
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to append " + batch.size() + " player data records: " + e.getMessage());
+            // Earlier chunks are already appended and indexed
+            failed = new ArrayList<>(batch.subList(from, batch.size()));
+        }
+
+        scheduleCompactionIfNeeded();
+        return failed;
+    }
+
+    /**
+     * Has to read every live record - prefer the SQL store for leaderboards on large servers
+     */
+    @Override
+    public List<PlayerDataSnapshot> topByEssence(int limit) {
+        List<PlayerDataSnapshot> all = loadAll();
+        all.sort(Comparator.comparingDouble(PlayerDataSnapshot::totalStormEssence).reversed());
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Player data compaction did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                closeQuietly(segment);
+            }
+            segments.clear();
+            activeSegment = null;
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        // Leftovers from a compaction interrupted before its rename
+        File[] leftovers = logFolder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(".tmp"));
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                leftover.delete();
+            }
+        }
+
+        File[] files = logFolder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparing(File::getName));
+
+        for (File file : files) {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            readFully(channel, buffer, 0);
+
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != FORMAT_VERSION) {
+                plugin.getLogger().warning("Skipping unreadable player data segment " + file.getName());
+                channel.close();
+                continue;
+            }
+
+            long segmentId = buffer.getLong(8);
+            Segment segment = new Segment(segmentId, file, channel, HEADER_SIZE);
+            segments.put(segmentId, segment);
+            nextSegmentId = Math.max(nextSegmentId, segmentId + 1);
+
+            int offset = HEADER_SIZE;
+            while (offset + ENTRY_SIZE <= buffer.capacity() && checksumMatches(buffer, offset)) {
+                indexEntry(segment, buffer, offset);
+                offset += ENTRY_SIZE;
+            }
+            segment.size = offset;
+
+            // Anything after the last good entry is a torn write from a crash
+            if (offset < buffer.capacity()) {
+                plugin.getLogger().warning("Truncating " + (buffer.capacity() - offset)
+                        + " bytes of incomplete entries from " + file.getName());
+                channel.truncate(offset);
+            }
+        }
+    }
+
+    private void indexEntry(Segment segment, ByteBuffer buffer, int offset) {
+        long sequence = buffer.getLong(offset);
+        long savedAt = buffer.getLong(offset + 8);
+        int recordOffset = offset + 16;
+        UUID playerId = new UUID(buffer.getLong(recordOffset + PlayerRecordCodec.OFFSET_UUID),
+                buffer.getLong(recordOffset + PlayerRecordCodec.OFFSET_UUID + 8));
+
+        segment.entries++;
+        nextSequence = Math.max(nextSequence, sequence + 1);
+
+        IndexEntry existing = index.get(playerId);
+        if (existing != null && existing.sequence() > sequence) {
+            return;
+        }
+        if (existing != null) {
+            segments.get(existing.segmentId()).live--;
+        }
+        index.put(playerId, new IndexEntry(segment.id, offset, sequence, savedAt));
+        segment.live++;
+    }
+
+    private void openActiveSegment() throws IOException {
+        Map.Entry<Long, Segment> newest = segments.lastEntry();
+        if (newest != null && newest.getValue().size + ENTRY_SIZE <= segmentSizeBytes) {
+            activeSegment = newest.getValue();
+        } else {
+            rollSegment();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        long segmentId = nextSegmentId++;
+        File file = new File(logFolder, segmentName(segmentId));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        writeHeader(header, segmentId);
+        header.flip();
+        writeFully(channel, header, 0);
+        channel.force(false);
+
+        activeSegment = new Segment(segmentId, file, channel, HEADER_SIZE);
+        segments.put(segmentId, activeSegment);
+    }
+
+    private void append(List<PlayerDataSnapshot> batch, long now) throws IOException {
+        Segment segment = activeSegment;
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * ENTRY_SIZE);
+        long[] sequences = new long[batch.size()];
+
+        for (int i = 0; i < batch.size(); i++) {
+            sequences[i] = nextSequence++;
+            writeEntry(buffer, sequences[i], now, batch.get(i));
+        }
+        buffer.flip();
+
+        // One write and one sync for the whole batch
+        writeFully(segment.channel, buffer, segment.size);
+        segment.channel.force(false);
+
+        for (int i = 0; i < batch.size(); i++) {
+            UUID playerId = batch.get(i).playerId();
+            IndexEntry previous = index.put(playerId,
+                    new IndexEntry(segment.id, segment.size + (long) i * ENTRY_SIZE, sequences[i], now));
+            if (previous != null) {
+                segments.get(previous.segmentId()).live--;
+            }
+        }
+        segment.size += buffer.limit();
+        segment.entries += batch.size();
+        segment.live += batch.size();
+    }
+
+    /**
+     * Queues a compaction once enough of the sealed segments is superseded
+     */
+    private void scheduleCompactionIfNeeded() {
+        if (compacting || compactor.isShutdown()) {
+            return;
+        }
+
+        int sealedEntries = 0;
+        int sealedLive = 0;
+        for (Segment segment : segments.values()) {
+            if (segment != activeSegment) {
+                sealedEntries += segment.entries;
+                sealedLive += segment.live;
+            }
+        }
+        if (sealedEntries == 0 || 1.0 - (double) sealedLive / sealedEntries < compactionThreshold) {
+            return;
+        }
+
+        compacting = true;
+        compactor.execute(this::compact);
+    }
+
+    /**
+     * Copies the live entries of every sealed segment into one new segment.
+     * Sealed segments never change, so they are read without holding the lock.
+     */
+    private void compact() {
+        Map<Long, Segment> sealed = new HashMap<>();
+        Map<UUID, IndexEntry> live = new LinkedHashMap<>();
+        long targetId;
+
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                if (segment != activeSegment) {
+                    sealed.put(segment.id, segment);
+                }
+            }
+            for (Map.Entry<UUID, IndexEntry> entry : index.entrySet()) {
+                if (sealed.containsKey(entry.getValue().segmentId())) {
+                    live.put(entry.getKey(), entry.getValue());
+                }
+            }
+            targetId = nextSegmentId++;
+        }
+
+        try {
+            File target = new File(logFolder, segmentName(targetId));
+            File temp = new File(logFolder, segmentName(targetId) + ".tmp");
+
+            ByteBuffer output = ByteBuffer.allocate(HEADER_SIZE + live.size() * ENTRY_SIZE);
+            writeHeader(output, targetId);
+            Map<UUID, Long> newOffsets = new HashMap<>();
+            ByteBuffer entryBuffer = ByteBuffer.allocate(ENTRY_SIZE);
+            for (Map.Entry<UUID, IndexEntry> entry : live.entrySet()) {
+                entryBuffer.clear();
+                readFully(sealed.get(entry.getValue().segmentId()).channel, entryBuffer, entry.getValue().offset());
+                newOffsets.put(entry.getKey(), (long) output.position());
+                output.put(entryBuffer.flip());
+            }
+            output.flip();
+
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(channel, output, 0);
+                channel.force(true);
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            FileChannel targetChannel = FileChannel.open(target.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            synchronized (this) {
+                Segment compacted = new Segment(targetId, target, targetChannel, output.limit());
+                compacted.entries = live.size();
+                segments.put(targetId, compacted);
+
+                // Players saved again during compaction already point at the active segment
+                for (Map.Entry<UUID, Long> moved : newOffsets.entrySet()) {
+                    IndexEntry current = index.get(moved.getKey());
+                    if (current != null && current.equals(live.get(moved.getKey()))) {
+                        index.put(moved.getKey(), new IndexEntry(targetId, moved.getValue(), current.sequence(), current.savedAt()));
+                        compacted.live++;
+                    }
+                }
+
+                long before = 0;
+                for (Segment segment : sealed.values()) {
+                    before += segment.size;
+                    segments.remove(segment.id);
+                    closeQuietly(segment);
+                    if (!segment.file.delete()) {
+                        plugin.getLogger().warning("Could not delete compacted segment " + segment.file.getName());
+                    }
+                }
+                compactions++;
+                reclaimedBytes += Math.max(0, before - compacted.size);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to compact player data log: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Writes an entry at the buffer's position
+     */
+    private static void writeEntry(ByteBuffer buffer, long sequence, long savedAt, PlayerDataSnapshot snapshot) {
+        int offset = buffer.position();
+        buffer.putLong(sequence);
+        buffer.putLong(savedAt);
+        PlayerRecordCodec.encode(snapshot, buffer);
+        buffer.putInt(checksum(buffer, offset));
+    }
+
+    private PlayerDataSnapshot decodeEntry(ByteBuffer buffer, int offset) {
+        if (!checksumMatches(buffer, offset)) {
+            plugin.getLogger().severe("Corrupt player data entry at offset " + offset);
+            return null;
+        }
+        return PlayerRecordCodec.decode(buffer.duplicate().position(offset + 16));
+    }
+
+    private ByteBuffer readSegment(Segment segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) segment.size);
+        readFully(segment.channel, buffer, 0);
+        return buffer;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, long segmentId) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(FORMAT_VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(segmentId);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + offset, ENTRY_SIZE - 4);
+        return (int) crc.getValue();
+    }
+
+    private static boolean checksumMatches(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + ENTRY_SIZE - 4) == checksum(buffer, offset);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close player data segment " + segment.file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static String segmentName(long segmentId) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX);
+    }
+}
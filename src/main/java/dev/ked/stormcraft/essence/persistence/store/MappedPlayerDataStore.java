@@ -0,0 +1,267 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores every player in one memory-mapped file of fixed-size slots (playerdata.slots).
+ * Records live in the OS page cache rather than the Java heap: reads decode only the slot
+ * asked for (scans read fields straight from the mapping) and saves overwrite the player's slot in place.
+ * Startup only reads each slot's UUID to rebuild the UUID to slot index.
+ *
+ * Slots are never freed, so they fill contiguously; the first empty slot ends the scan.
+ * The file doubles in size when it runs out of slots.
+ */
+public class MappedPlayerDataStore implements PlayerDataStore {
+    private static final int MAGIC = 0x53434D50; // "SCMP"
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    // One cache line per slot: codec record, spare room for it to grow into, saved-at millis in the last 8 bytes
+    private static final int SLOT_SIZE = 64;
+    private static final int OFFSET_SAVED_AT = SLOT_SIZE - 8;
+    private static final int INITIAL_SLOTS = 1024;
+
+    static {
+        if (PlayerRecordCodec.RECORD_SIZE > OFFSET_SAVED_AT) {
+            throw new IllegalStateException("Player record no longer fits in a slot");
+        }
+    }
+
+    private final Plugin plugin;
+    private final File file;
+    private final FileChannel channel;
+
+    // All state below is guarded by this
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private int usedSlots; // Including unreadable slots, which stay occupied
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private MappedPlayerDataStore(Plugin plugin, File file, FileChannel channel) {
+        this.plugin = plugin;
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Maps the slot file (creating it if needed) and indexes its slots
+     * @return null if the file could not be mapped
+     */
+    public static MappedPlayerDataStore open(Plugin plugin, File file) {
+        FileChannel channel = null;
+        try {
+            file.getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedPlayerDataStore store = new MappedPlayerDataStore(plugin, file, channel);
+            synchronized (store) {
+                store.mapExisting();
+            }
+            return store;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to map player data file " + file.getName() + ": " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "mapped";
+    }
+
+    @Override
+    public synchronized String getStatus() {
+        return String.format("mapped, %d records in %d slots (%d KB mapped off-heap)",
+                slots.size(), capacity, ((long) HEADER_SIZE + (long) capacity * SLOT_SIZE) / 1024);
+    }
+
+    /**
+     * Visits the offset of every readable slot
+     */
+    private void forEachSlot(IntConsumer action) {
+        for (int slot = 0; slot < usedSlots; slot++) {
+            int offset = slotOffset(slot);
+            if (PlayerRecordCodec.isSupported(buffer.get(offset))) {
+                action.accept(offset);
+            }
+        }
+    }
+
+    @Override
+    public synchronized PlayerDataSnapshot load(UUID playerId) {
+        Integer slot = slots.get(playerId);
+        return slot != null ? PlayerRecordCodec.decode(buffer.duplicate().position(slotOffset(slot))) : null;
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadAll() {
+        return loadActiveSince(0L);
+    }
+
+    @Override
+    public synchronized List<PlayerDataSnapshot> loadActiveSince(long sinceMillis) {
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        forEachSlot(offset -> {
+            if (buffer.getLong(offset + OFFSET_SAVED_AT) >= sinceMillis) {
+                snapshots.add(PlayerRecordCodec.decode(buffer.duplicate().position(offset)));
+            }
+        });
+        return snapshots;
+    }
+
+    @Override
+    public synchronized List<UUID> listPlayerIds() {
+        return new ArrayList<>(slots.keySet());
+    }
+
+    @Override
+    public synchronized int count() {
+        return slots.size();
+    }
+
+    @Override
+    public boolean save(PlayerDataSnapshot snapshot) {
+        return saveAll(List.of(snapshot)).isEmpty();
+    }
+
+    /**
+     * Overwrites each player's slot in place, then syncs the mapping once for the batch
+     */
+    @Override
+    public synchronized List<PlayerDataSnapshot> saveAll(Collection<PlayerDataSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return List.of();
+        }
+        if (buffer == null) {
+            return new ArrayList<>(snapshots);
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            for (PlayerDataSnapshot snapshot : snapshots) {
+                Integer slot = slots.get(snapshot.playerId());
+                if (slot == null) {
+                    if (usedSlots == capacity) {
+                        grow();
+                    }
+                    slot = usedSlots++;
+                    slots.put(snapshot.playerId(), slot);
+                }
+
+                int offset = slotOffset(slot);
+                PlayerRecordCodec.encode(snapshot, buffer.duplicate().position(offset));
+                buffer.putLong(offset + OFFSET_SAVED_AT, now);
+            }
+            buffer.force();
+            return List.of();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to save " + snapshots.size() + " player data records: " + e.getMessage());
+            // Rewriting a slot is idempotent, so retry the whole batch
+            return new ArrayList<>(snapshots);
+        }
+    }
+
+    /**
+     * Scans the slots in place, only copying the winners onto the heap
+     */
+    @Override
+    public synchronized List<PlayerDataSnapshot> topByEssence(int limit) {
+        // Min-heap of slot offsets ordered by essence, read straight from the mapping
+        PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingDouble(
+                offset -> buffer.getDouble(offset + PlayerRecordCodec.OFFSET_ESSENCE)));
+        forEachSlot(offset -> {
+            top.add(offset);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            snapshots.add(PlayerRecordCodec.decode(buffer.duplicate().position(top.poll())));
+        }
+        Collections.reverse(snapshots);
+        return snapshots;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (buffer == null) {
+            return;
+        }
+
+        buffer.force();
+        buffer = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close player data file " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private void mapExisting() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            map(INITIAL_SLOTS);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, FORMAT_VERSION);
+            buffer.putShort(6, (short) SLOT_SIZE);
+            buffer.force();
+            return;
+        }
+
+        if (size < HEADER_SIZE) {
+            throw new IOException("File is too small to be a slot file");
+        }
+        map((int) ((size - HEADER_SIZE) / SLOT_SIZE));
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != FORMAT_VERSION || buffer.getShort(6) != SLOT_SIZE) {
+            throw new IOException("Unrecognized slot file header");
+        }
+
+        // Only the UUIDs are read - records stay in the page cache until something looks at them
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slotOffset(slot);
+            byte version = buffer.get(offset);
+            if (version == 0) break;
+            usedSlots = slot + 1;
+            if (!PlayerRecordCodec.isSupported(version)) {
+                // Left in place (and never reused) in case a newer version of the plugin wrote it
+                plugin.getLogger().warning("Skipping player data slot " + slot + " with unsupported version " + version);
+                continue;
+            }
+
+            UUID playerId = new UUID(buffer.getLong(offset + PlayerRecordCodec.OFFSET_UUID),
+                    buffer.getLong(offset + PlayerRecordCodec.OFFSET_UUID + 8));
+            slots.put(playerId, slot);
+        }
+    }
+
+    private void grow() throws IOException {
+        buffer.force();
+        map(capacity * 2);
+    }
+
+    private void map(int slotCount) throws IOException {
+        // Mapping past the end of the file extends it with zeroed (empty) slots
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+        capacity = slotCount;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
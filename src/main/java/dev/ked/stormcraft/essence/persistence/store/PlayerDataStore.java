@@ -0,0 +1,86 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Storage backend for player essence records.
+ * Implementations must be safe to call from the main thread, the loader threads
+ * and the write-behind I/O thread. Failures are logged, never thrown; saves report
+ * what they could not write so callers can retry it.
+ */
+public interface PlayerDataStore {
+
+    /**
+     * @return Short name shown in logs and stats (e.g. "json", "sqlite")
+     */
+    String getName();
+
+    /**
+     * @return One-line description for /essence stats
+     */
+    default String getStatus() {
+        return getName();
+    }
+
+    /**
+     * Loads a single player's record
+     * @return null if the player has no stored record or it could not be read
+     */
+    PlayerDataSnapshot load(UUID playerId);
+
+    /**
+     * Loads every stored record
+     */
+    List<PlayerDataSnapshot> loadAll();
+
+    /**
+     * Loads records saved at or after the given time
+     */
+    List<PlayerDataSnapshot> loadActiveSince(long sinceMillis);
+
+    /**
+     * @return IDs of every player with a stored record
+     */
+    List<UUID> listPlayerIds();
+
+    /**
+     * @return Number of stored records
+     */
+    int count();
+
+    /**
+     * Saves a single record, replacing any existing one
+     * @return false if it could not be written
+     */
+    boolean save(PlayerDataSnapshot snapshot);
+
+    /**
+     * Saves a batch of records. Backends that support it write the batch as one transaction.
+     * @return The records that could not be written (empty if all were)
+     */
+    default List<PlayerDataSnapshot> saveAll(Collection<PlayerDataSnapshot> snapshots) {
+        List<PlayerDataSnapshot> failed = new ArrayList<>();
+        for (PlayerDataSnapshot snapshot : snapshots) {
+            if (!save(snapshot)) {
+                failed.add(snapshot);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @return The records with the most lifetime storm essence, highest first
+     */
+    List<PlayerDataSnapshot> topByEssence(int limit);
+
+    /**
+     * Releases any open files or connections
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,141 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fixed-size binary encoding of a player essence record.
+ *
+ * Layout (version 1, 40 bytes, big-endian):
+ *   0      version
+ *   1      selected active ability ordinal + 1 (0 = none)
+ *   2-3    reserved
+ *   4-7    active passives bitmask (bit n = PassiveAbility ordinal n)
+ *   8-23   player UUID (most then least significant bits)
+ *   24-31  total storm essence
+ *   32-39  native essence balance
+ *
+ * Passives and the selected ability are stored by ordinal, so new abilities must be
+ * appended to PassiveAbility - reordering it requires a new codec version.
+ */
+public final class PlayerRecordCodec {
+    public static final byte VERSION = 1;
+    public static final int RECORD_SIZE = 40;
+
+    // Field offsets within a record, for readers that access fields in place
+    static final int OFFSET_VERSION = 0;
+    static final int OFFSET_SELECTED = 1;
+    static final int OFFSET_PASSIVES = 4;
+    static final int OFFSET_UUID = 8;
+    static final int OFFSET_ESSENCE = 24;
+    static final int OFFSET_BALANCE = 32;
+
+    private static final PassiveAbility[] ABILITIES = PassiveAbility.values();
+
+    static {
+        if (ABILITIES.length > Integer.SIZE) {
+            throw new IllegalStateException("Too many abilities for the passive bitmask");
+        }
+    }
+
+    private PlayerRecordCodec() {
+    }
+
+    /**
+     * Encodes a record into a new array
+     */
+    public static byte[] encode(PlayerDataSnapshot snapshot) {
+        byte[] bytes = new byte[RECORD_SIZE];
+        encode(snapshot, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Writes a record at the buffer's position, advancing it by RECORD_SIZE
+     */
+    public static void encode(PlayerDataSnapshot snapshot, ByteBuffer buffer) {
+        PassiveAbility selected = snapshot.selectedActiveAbility();
+
+        buffer.put(VERSION);
+        buffer.put((byte) (selected != null ? selected.ordinal() + 1 : 0));
+        buffer.putShort((short) 0);
+        buffer.putInt(toBitmask(snapshot.activePassives()));
+        buffer.putLong(snapshot.playerId().getMostSignificantBits());
+        buffer.putLong(snapshot.playerId().getLeastSignificantBits());
+        buffer.putDouble(snapshot.totalStormEssence());
+        buffer.putDouble(snapshot.balance());
+    }
+
+    /**
+     * Decodes a record from an array
+     * @return null if the record is truncated or from an unsupported version
+     */
+    public static PlayerDataSnapshot decode(byte[] bytes) {
+        if (bytes.length < RECORD_SIZE) {
+            return null;
+        }
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a record at the buffer's position, advancing it by that record's size
+     * @return null if the record is from an unsupported version
+     */
+    public static PlayerDataSnapshot decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        byte version = buffer.get(start + OFFSET_VERSION);
+        if (!isSupported(version)) {
+            buffer.position(start + RECORD_SIZE);
+            return null;
+        }
+
+        buffer.get(); // version
+        int selectedOrdinal = buffer.get() - 1;
+        buffer.getShort(); // reserved
+        int passiveMask = buffer.getInt();
+        UUID playerId = new UUID(buffer.getLong(), buffer.getLong());
+        double totalStormEssence = buffer.getDouble();
+        double balance = buffer.getDouble();
+
+        return new PlayerDataSnapshot(playerId, totalStormEssence,
+                Collections.unmodifiableSet(fromBitmask(passiveMask)), abilityFromOrdinal(selectedOrdinal), balance);
+    }
+
+    /**
+     * @return Whether records of this version can be decoded
+     */
+    public static boolean isSupported(byte version) {
+        return version == VERSION;
+    }
+
+    /**
+     * @return The ability with the given ordinal, or null if out of range (no selection)
+     */
+    static PassiveAbility abilityFromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < ABILITIES.length ? ABILITIES[ordinal] : null;
+    }
+
+    private static int toBitmask(Set<PassiveAbility> passives) {
+        int mask = 0;
+        for (PassiveAbility ability : passives) {
+            mask |= 1 << ability.ordinal();
+        }
+        return mask;
+    }
+
+    private static Set<PassiveAbility> fromBitmask(int mask) {
+        Set<PassiveAbility> passives = EnumSet.noneOf(PassiveAbility.class);
+        for (PassiveAbility ability : ABILITIES) {
+            if ((mask & (1 << ability.ordinal())) != 0) {
+                passives.add(ability);
+            }
+        }
+        return passives;
+    }
+}
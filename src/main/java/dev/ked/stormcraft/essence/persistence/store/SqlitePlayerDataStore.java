@@ -0,0 +1,241 @@
+package dev.ked.stormcraft.essence.persistence.store;
+
+import dev.ked.stormcraft.essence.model.PassiveAbility;
+import dev.ked.stormcraft.essence.persistence.PlayerDataSnapshot;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Stores all players in a single embedded SQLite database (playerdata.db).
+ * Batches are written as one transaction of prepared-statement upserts, and
+ * leaderboard queries use an index instead of scanning every record.
+ * Uses the SQLite JDBC driver bundled with the server.
+ */
+public class SqlitePlayerDataStore implements PlayerDataStore {
+    private static final String UPSERT_SQL =
+            "INSERT INTO player_essence (uuid, total_storm_essence, active_passives, selected_ability, balance, updated_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET total_storm_essence = excluded.total_storm_essence, " +
+            "active_passives = excluded.active_passives, selected_ability = excluded.selected_ability, " +
+            "balance = excluded.balance, updated_at = excluded.updated_at";
+    private static final String SELECT_COLUMNS = "SELECT uuid, total_storm_essence, active_passives, selected_ability, balance FROM player_essence";
+
+    private final Plugin plugin;
+    private final Connection connection;
+
+    private SqlitePlayerDataStore(Plugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Opens (and creates if needed) the database file
+     * @return null if the SQLite driver is unavailable or the database could not be opened
+     */
+    public static SqlitePlayerDataStore open(Plugin plugin, File databaseFile) {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            plugin.getLogger().severe("SQLite driver not found on this server");
+            return null;
+        }
+
+        try {
+            databaseFile.getParentFile().mkdirs();
+            Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS player_essence (" +
+                        "uuid TEXT PRIMARY KEY, " +
+                        "total_storm_essence REAL NOT NULL, " +
+                        "active_passives TEXT NOT NULL, " +
+                        "selected_ability TEXT, " +
+                        "balance REAL NOT NULL, " +
+                        "updated_at INTEGER NOT NULL)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_player_essence_total ON player_essence (total_storm_essence DESC)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_player_essence_updated ON player_essence (updated_at)");
+            }
+            return new SqlitePlayerDataStore(plugin, connection);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to open player database " + databaseFile.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    public synchronized PlayerDataSnapshot load(UUID playerId) {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_COLUMNS + " WHERE uuid = ?")) {
+            statement.setString(1, playerId.toString());
+            try (ResultSet results = statement.executeQuery()) {
+                return results.next() ? readSnapshot(results) : null;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadAll() {
+        return query(SELECT_COLUMNS, null);
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> loadActiveSince(long sinceMillis) {
+        return query(SELECT_COLUMNS + " WHERE updated_at >= ?", sinceMillis);
+    }
+
+    @Override
+    public synchronized List<UUID> listPlayerIds() {
+        List<UUID> playerIds = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT uuid FROM player_essence")) {
+            while (results.next()) {
+                playerIds.add(UUID.fromString(results.getString(1)));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to list player data: " + e.getMessage());
+        }
+        return playerIds;
+    }
+
+    @Override
+    public synchronized int count() {
+        try (Statement statement = connection.createStatement();
+             ResultSet results = statement.executeQuery("SELECT COUNT(*) FROM player_essence")) {
+            return results.next() ? results.getInt(1) : 0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to count player data: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean save(PlayerDataSnapshot snapshot) {
+        return saveAll(List.of(snapshot)).isEmpty();
+    }
+
+    /**
+     * Writes the whole batch as a single transaction
+     */
+    @Override
+    public synchronized List<PlayerDataSnapshot> saveAll(Collection<PlayerDataSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return List.of();
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                for (PlayerDataSnapshot snapshot : snapshots) {
+                    statement.setString(1, snapshot.playerId().toString());
+                    statement.setDouble(2, snapshot.totalStormEssence());
+                    statement.setString(3, encodePassives(snapshot.activePassives()));
+                    statement.setString(4, snapshot.selectedActiveAbility() != null ? snapshot.selectedActiveAbility().name() : null);
+                    statement.setDouble(5, snapshot.balance());
+                    statement.setLong(6, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+                return List.of();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to save " + snapshots.size() + " player data records: " + e.getMessage());
+            return new ArrayList<>(snapshots); // Rolled back as a whole
+        }
+    }
+
+    @Override
+    public List<PlayerDataSnapshot> topByEssence(int limit) {
+        return query(SELECT_COLUMNS + " ORDER BY total_storm_essence DESC LIMIT ?", (long) limit);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to close player database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a select with an optional single numeric parameter
+     */
+    private synchronized List<PlayerDataSnapshot> query(String sql, Long parameter) {
+        List<PlayerDataSnapshot> snapshots = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (parameter != null) {
+                statement.setLong(1, parameter);
+            }
+            try (ResultSet results = statement.executeQuery()) {
+                while (results.next()) {
+                    snapshots.add(readSnapshot(results));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to query player data: " + e.getMessage());
+        }
+        return snapshots;
+    }
+
+    private PlayerDataSnapshot readSnapshot(ResultSet results) throws SQLException {
+        UUID playerId = UUID.fromString(results.getString("uuid"));
+        double totalStormEssence = results.getDouble("total_storm_essence");
+        Set<PassiveAbility> activePassives = decodePassives(results.getString("active_passives"));
+        String selectedName = results.getString("selected_ability");
+        PassiveAbility selectedActiveAbility = selectedName != null ? parseAbility(selectedName) : null;
+        return new PlayerDataSnapshot(playerId, totalStormEssence, Collections.unmodifiableSet(activePassives),
+                selectedActiveAbility, results.getDouble("balance"));
+    }
+
+    /**
+     * Passives are stored by name so reordering the enum never corrupts records
+     */
+    private String encodePassives(Set<PassiveAbility> passives) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (PassiveAbility ability : passives) {
+            joiner.add(ability.name());
+        }
+        return joiner.toString();
+    }
+
+    private Set<PassiveAbility> decodePassives(String encoded) {
+        Set<PassiveAbility> passives = EnumSet.noneOf(PassiveAbility.class);
+        if (encoded == null || encoded.isEmpty()) {
+            return passives;
+        }
+
+        for (String passiveName : encoded.split(",")) {
+            PassiveAbility ability = parseAbility(passiveName);
+            if (ability != null) {
+                passives.add(ability);
+            }
+        }
+        return passives;
+    }
+
+    private PassiveAbility parseAbility(String name) {
+        try {
+            return PassiveAbility.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown passive ability: " + name);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package dev.ked.stormcraft.essence.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Shared one-shot timers keyed to the server tick (ability cooldowns, effect durations),
+ * held in a {@link HierarchicalTimingWheel} and advanced once per tick by a single Bukkit task.
+ * Main thread only.
+ */
+public class ExpiryScheduler {
+    private final Plugin plugin;
+    private final HierarchicalTimingWheel wheel;
+    private BukkitTask tickTask;
+
+    public ExpiryScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.wheel = new HierarchicalTimingWheel(Bukkit.getCurrentTick());
+    }
+
+    public void start() {
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> wheel.advanceTo(Bukkit.getCurrentTick()), 1L, 1L);
+    }
+
+    /**
+     * Stops the wheel; anything still scheduled never fires (call on disable)
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Runs an action on a given server tick (or the next one, if that has passed)
+     */
+    public HierarchicalTimingWheel.Timeout scheduleAt(long tick, Runnable action) {
+        return wheel.schedule(tick - wheel.getCurrentTick(), action);
+    }
+
+    public boolean cancel(HierarchicalTimingWheel.Timeout timeout) {
+        return wheel.cancel(timeout);
+    }
+
+    public HierarchicalTimingWheel getWheel() {
+        return wheel;
+    }
+}
@@ -0,0 +1,191 @@
+package dev.ked.stormcraft.essence.scheduler;
+
+/**
+ * Timer wheel for one-shot timeouts measured in ticks, with O(1) schedule, cancel and expiry.
+ *
+ * Level 0 has a slot per tick for the next 64 ticks; each level above covers 64 times the span
+ * with slots 64 times as wide (64 ticks, ~3 minutes, ~3.6 hours, ~9 days). A timeout goes in the
+ * coarsest level it needs and moves down a level each time its slot comes up, until it lands in
+ * level 0 and fires on its exact tick. Slots are intrusive doubly-linked lists, so cancelling
+ * just unlinks the node.
+ *
+ * Not thread-safe.
+ */
+public class HierarchicalTimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+
+    private final Timeout[][] heads = new Timeout[LEVELS][SLOTS];
+    private long currentTick;
+    private int pending;
+
+    // Metrics
+    private long scheduled;
+    private long fired;
+    private long cancelled;
+    private long cascaded;
+
+    /**
+     * A scheduled action; keep it to cancel the action before it fires
+     */
+    public static final class Timeout {
+        private final long deadline;
+        private final Runnable action;
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1; // -1 once fired or cancelled
+        private int slot;
+
+        private Timeout(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isPending() {
+            return level >= 0;
+        }
+    }
+
+    public HierarchicalTimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Runs the action once the wheel reaches {@code currentTick + delayTicks} (at least one tick away)
+     */
+    public Timeout schedule(long delayTicks, Runnable action) {
+        Timeout timeout = new Timeout(currentTick + Math.max(1L, delayTicks), action);
+        place(timeout);
+        pending++;
+        scheduled++;
+        return timeout;
+    }
+
+    /**
+     * @return false if the timeout had already fired or been cancelled
+     */
+    public boolean cancel(Timeout timeout) {
+        if (!timeout.isPending()) {
+            return false;
+        }
+
+        unlink(timeout);
+        pending--;
+        cancelled++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to a tick, firing everything due on the way
+     */
+    public void advanceTo(long tick) {
+        while (currentTick < tick) {
+            advance();
+        }
+    }
+
+    private void advance() {
+        currentTick++;
+
+        // Each time a level wraps, the next level's current slot moves down
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+
+        // Taken one at a time, so an action can safely cancel another timeout due on this tick
+        int slot = (int) (currentTick & SLOT_MASK);
+        Timeout timeout;
+        while ((timeout = heads[0][slot]) != null) {
+            unlink(timeout);
+            if (timeout.deadline > currentTick) {
+                // Was beyond the wheel's span when scheduled - goes round again
+                place(timeout);
+            } else {
+                pending--;
+                fired++;
+                timeout.action.run();
+            }
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout timeout = heads[level][slot];
+        heads[level][slot] = null;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            place(timeout);
+            cascaded++;
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long delta = timeout.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((timeout.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = heads[level][slot];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        heads[level][slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            heads[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public long getScheduled() {
+        return scheduled;
+    }
+
+    public long getFired() {
+        return fired;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return Times a timeout moved down a level
+     */
+    public long getCascaded() {
+        return cascaded;
+    }
+}
@@ -0,0 +1,188 @@
+package dev.ked.stormcraft.essence.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs periodic per-entry work (per player, per pedestal) spread evenly over the period instead
+ * of all at once. Each {@link SpreadTask} is a timing wheel with one slot per tick of its period;
+ * an entry is placed in the least loaded slot when added, and each server tick only the current
+ * slot's entries run. Every entry still runs once per period, but per-tick cost stays flat.
+ *
+ * One Bukkit task drives every wheel. Main thread only.
+ */
+public class TickSpreadScheduler {
+    private final Plugin plugin;
+    private final List<SpreadTask<?>> tasks = new ArrayList<>();
+    private BukkitTask tickTask;
+    private long tick;
+
+    public TickSpreadScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts driving the registered wheels
+     */
+    public void start() {
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops driving the wheels (call on disable)
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Registers a wheel that runs its action once per period for every entry added to it
+     * @param periodTicks How often each entry runs, which is also the number of slots
+     */
+    public <K> SpreadTask<K> register(String name, int periodTicks, Consumer<K> action) {
+        SpreadTask<K> task = new SpreadTask<>(name, Math.max(1, periodTicks), action);
+        tasks.add(task);
+        return task;
+    }
+
+    public List<SpreadTask<?>> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    private void tick() {
+        for (SpreadTask<?> task : tasks) {
+            task.runSlot((int) (tick % task.period));
+        }
+        tick++;
+    }
+
+    /**
+     * One wheel: entries are spread over {@code period} slots and each slot runs on its own tick
+     */
+    public static final class SpreadTask<K> {
+        private final String name;
+        private final int period;
+        private final Consumer<K> action;
+        private final List<List<K>> slots;
+        private final Map<K, Integer> slotOf = new HashMap<>();
+        private final List<K> running = new ArrayList<>(); // Reused copy, so actions can add or remove entries
+
+        // Metrics
+        private long lastSlotNanos;
+        private long maxSlotNanos;
+        private int maxSlotEntries;
+
+        private SpreadTask(String name, int period, Consumer<K> action) {
+            this.name = name;
+            this.period = period;
+            this.action = action;
+            this.slots = new ArrayList<>(period);
+            for (int i = 0; i < period; i++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Adds an entry to the least loaded slot (no-op if already added)
+         */
+        public void add(K key) {
+            if (slotOf.containsKey(key)) {
+                return;
+            }
+
+            int best = 0;
+            for (int slot = 1; slot < period && slots.get(best).size() > 0; slot++) {
+                if (slots.get(slot).size() < slots.get(best).size()) {
+                    best = slot;
+                }
+            }
+            slots.get(best).add(key);
+            slotOf.put(key, best);
+        }
+
+        public void remove(K key) {
+            Integer slot = slotOf.remove(key);
+            if (slot != null) {
+                slots.get(slot).remove(key);
+            }
+        }
+
+        public boolean contains(K key) {
+            return slotOf.containsKey(key);
+        }
+
+        private void runSlot(int slot) {
+            List<K> entries = slots.get(slot);
+            if (entries.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            running.addAll(entries);
+            try {
+                for (K key : running) {
+                    // Skip entries removed by an earlier action in this slot
+                    Integer current = slotOf.get(key);
+                    if (current != null && current == slot) {
+                        action.accept(key);
+                    }
+                }
+            } finally {
+                maxSlotEntries = Math.max(maxSlotEntries, running.size());
+                running.clear();
+                lastSlotNanos = System.nanoTime() - start;
+                maxSlotNanos = Math.max(maxSlotNanos, lastSlotNanos);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPeriodTicks() {
+            return period;
+        }
+
+        public int size() {
+            return slotOf.size();
+        }
+
+        /**
+         * @return Entries in the fullest slot right now (ideally size / period, rounded up)
+         */
+        public int getMaxSlotLoad() {
+            int max = 0;
+            for (List<K> entries : slots) {
+                max = Math.max(max, entries.size());
+            }
+            return max;
+        }
+
+        /**
+         * @return Most entries any slot has run in one tick
+         */
+        public int getPeakSlotEntries() {
+            return maxSlotEntries;
+        }
+
+        public long getLastSlotMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(lastSlotNanos);
+        }
+
+        public long getMaxSlotMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxSlotNanos);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package dev.ked.stormcraft.essence.storm;
+
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Chunk-resolution raster of where storms are, for "is this point in a storm" checks on hot paths
+ * like move events. Each world keeps a table from chunk to two bitsets over that world's storms:
+ * storms covering the whole chunk, and storms covering part of it. A check is one table lookup,
+ * then an exact distance test only against the partial storms.
+ *
+ * Footprints are drawn with a {@link #MARGIN}-block allowance: a chunk is only "whole" if it stays
+ * inside the storm with the center moved that far, and "partial" if it could touch it. So a storm's
+ * footprint stays valid until it has moved more than the margin, and only then is it redrawn;
+ * exact tests always use the latest snapshot position. Updated from the tick's {@link StormSnapshot}
+ * on the first check of a tick. Main thread only.
+ *
+ * Up to 64 storms per world are rastered; any beyond that are tested exactly on every check.
+ */
+public class StormCoverage {
+    private static final int CELL_SHIFT = 4; // Chunks
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+    /** How far a storm may drift from where its footprint was drawn before it is redrawn */
+    public static final double MARGIN = CELL_SIZE;
+    private static final int SLOTS = 64;
+
+    private final StormSnapshotService snapshots;
+    private final Map<World, WorldRaster> rasters = new HashMap<>();
+    private StormSnapshot snapshot;
+
+    // Metrics
+    private long redraws;
+    private long lookups;
+    private long rasterAnswers;
+    private long exactTests;
+
+    /**
+     * One world's footprints. Storms hold a slot (their bit in the bitsets) while they exist.
+     */
+    private final class WorldRaster {
+        private final CellTable cells = new CellTable();
+        private final Map<TravelingStorm, Integer> slotOf = new IdentityHashMap<>();
+        private final TravelingStorm[] slotStorms = new TravelingStorm[SLOTS];
+        // Current position, for exact tests
+        private final double[] x = new double[SLOTS];
+        private final double[] z = new double[SLOTS];
+        private final double[] radius = new double[SLOTS];
+        // Where the footprint was drawn
+        private final double[] drawnX = new double[SLOTS];
+        private final double[] drawnZ = new double[SLOTS];
+        private final double[] drawnRadius = new double[SLOTS];
+        private long usedSlots;
+        private long seenSlots;
+        // Snapshot indexes of storms that didn't get a slot
+        private int[] overflow = new int[0];
+        private int overflowCount;
+
+        private void update(int storm) {
+            TravelingStorm travelingStorm = snapshot.getStorm(storm);
+            double stormX = snapshot.getX(storm);
+            double stormZ = snapshot.getZ(storm);
+            double stormRadius = snapshot.getRadius(storm);
+
+            Integer existing = slotOf.get(travelingStorm);
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                double dx = stormX - drawnX[slot];
+                double dz = stormZ - drawnZ[slot];
+                if (dx * dx + dz * dz > MARGIN * MARGIN || stormRadius != drawnRadius[slot]) {
+                    paint(slot, false);
+                    draw(slot, stormX, stormZ, stormRadius);
+                }
+            } else if (usedSlots != -1L) {
+                slot = Long.numberOfTrailingZeros(~usedSlots);
+                usedSlots |= 1L << slot;
+                slotOf.put(travelingStorm, slot);
+                slotStorms[slot] = travelingStorm;
+                draw(slot, stormX, stormZ, stormRadius);
+            } else {
+                if (overflowCount == overflow.length) {
+                    overflow = Arrays.copyOf(overflow, Math.max(4, overflowCount * 2));
+                }
+                overflow[overflowCount++] = storm;
+                return;
+            }
+
+            x[slot] = stormX;
+            z[slot] = stormZ;
+            radius[slot] = stormRadius;
+            seenSlots |= 1L << slot;
+        }
+
+        /**
+         * Frees the slots of storms missing from this snapshot
+         */
+        private void removeUnseen() {
+            long gone = usedSlots & ~seenSlots;
+            while (gone != 0) {
+                int slot = Long.numberOfTrailingZeros(gone);
+                gone &= gone - 1;
+                paint(slot, false);
+                slotOf.remove(slotStorms[slot]);
+                slotStorms[slot] = null;
+                usedSlots &= ~(1L << slot);
+            }
+        }
+
+        private void draw(int slot, double stormX, double stormZ, double stormRadius) {
+            drawnX[slot] = stormX;
+            drawnZ[slot] = stormZ;
+            drawnRadius[slot] = stormRadius;
+            paint(slot, true);
+            redraws++;
+        }
+
+        /**
+         * Sets or clears a slot's bits over its drawn footprint
+         */
+        private void paint(int slot, boolean set) {
+            double cx = drawnX[slot];
+            double cz = drawnZ[slot];
+            double inner = drawnRadius[slot] - MARGIN;
+            double outer = drawnRadius[slot] + MARGIN;
+            double innerSq = inner > 0 ? inner * inner : -1.0;
+            double outerSq = outer * outer;
+            long bit = 1L << slot;
+
+            int fromX = (int) Math.floor(cx - outer) >> CELL_SHIFT;
+            int toX = (int) Math.floor(cx + outer) >> CELL_SHIFT;
+            int fromZ = (int) Math.floor(cz - outer) >> CELL_SHIFT;
+            int toZ = (int) Math.floor(cz + outer) >> CELL_SHIFT;
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                double minX = (double) cellX * CELL_SIZE;
+                double maxX = minX + CELL_SIZE;
+                double nearX = Math.max(minX, Math.min(cx, maxX)) - cx;
+                double farX = Math.max(Math.abs(minX - cx), Math.abs(maxX - cx));
+                for (int cellZ = fromZ; cellZ <= toZ; cellZ++) {
+                    double minZ = (double) cellZ * CELL_SIZE;
+                    double maxZ = minZ + CELL_SIZE;
+                    double nearZ = Math.max(minZ, Math.min(cz, maxZ)) - cz;
+                    if (nearX * nearX + nearZ * nearZ > outerSq) continue; // Can't touch the storm
+
+                    double farZ = Math.max(Math.abs(minZ - cz), Math.abs(maxZ - cz));
+                    boolean whole = farX * farX + farZ * farZ <= innerSq;
+                    long key = key(cellX, cellZ);
+                    if (set) {
+                        cells.set(key, bit, whole);
+                    } else {
+                        cells.clear(key, bit);
+                    }
+                }
+            }
+        }
+
+        private boolean isCovered(double px, double pz) {
+            int index = cells.find(key((int) Math.floor(px) >> CELL_SHIFT, (int) Math.floor(pz) >> CELL_SHIFT));
+            if (index >= 0) {
+                if (cells.whole[index] != 0) {
+                    rasterAnswers++;
+                    return true;
+                }
+
+                long partial = cells.partial[index];
+                while (partial != 0) {
+                    int slot = Long.numberOfTrailingZeros(partial);
+                    partial &= partial - 1;
+                    exactTests++;
+                    if (within(px - x[slot], pz - z[slot], radius[slot])) {
+                        return true;
+                    }
+                }
+            }
+
+            for (int i = 0; i < overflowCount; i++) {
+                int storm = overflow[i];
+                exactTests++;
+                if (within(px - snapshot.getX(storm), pz - snapshot.getZ(storm), snapshot.getRadius(storm))) {
+                    return true;
+                }
+            }
+            if (index < 0 && overflowCount == 0) {
+                rasterAnswers++;
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            return usedSlots == 0 && overflowCount == 0;
+        }
+    }
+
+    /**
+     * Open-addressed chunk key to bitset pair table; cells are removed once no storm touches them
+     */
+    private static final class CellTable {
+        private static final float MAX_LOAD = 0.5f;
+
+        private long[] keys = new long[256];
+        private long[] whole = new long[256];
+        private long[] partial = new long[256];
+        private boolean[] used = new boolean[256];
+        private int size;
+
+        private int find(long key) {
+            int index = indexOf(key);
+            return used[index] ? index : -1;
+        }
+
+        private void set(long key, long bit, boolean isWhole) {
+            int index = indexOf(key);
+            if (!used[index]) {
+                used[index] = true;
+                keys[index] = key;
+                whole[index] = 0L;
+                partial[index] = 0L;
+                if (++size > used.length * MAX_LOAD) {
+                    resize(used.length * 2);
+                    index = indexOf(key);
+                }
+            }
+            if (isWhole) {
+                whole[index] |= bit;
+            } else {
+                partial[index] |= bit;
+            }
+        }
+
+        private void clear(long key, long bit) {
+            int index = indexOf(key);
+            if (!used[index]) {
+                return;
+            }
+            whole[index] &= ~bit;
+            partial[index] &= ~bit;
+            if (whole[index] == 0 && partial[index] == 0) {
+                deleteAt(index);
+            }
+        }
+
+        private int indexOf(long key) {
+            int mask = used.length - 1;
+            int index = hash(key) & mask;
+            while (used[index] && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        /**
+         * Backward-shift deletion, so lookups never need tombstones
+         */
+        private void deleteAt(int index) {
+            int mask = used.length - 1;
+            int gap = index;
+            int next = (gap + 1) & mask;
+            while (used[next]) {
+                int home = hash(keys[next]) & mask;
+                // Move the entry into the gap unless its home lies cyclically in (gap, next]
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    whole[gap] = whole[next];
+                    partial[gap] = partial[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            used[gap] = false;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldWhole = whole;
+            long[] oldPartial = partial;
+            boolean[] oldUsed = used;
+            keys = new long[capacity];
+            whole = new long[capacity];
+            partial = new long[capacity];
+            used = new boolean[capacity];
+
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i]) {
+                    int index = indexOf(oldKeys[i]);
+                    used[index] = true;
+                    keys[index] = oldKeys[i];
+                    whole[index] = oldWhole[i];
+                    partial[index] = oldPartial[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
+
+    public StormCoverage(StormSnapshotService snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * @return Whether the point is inside any storm's damage radius
+     */
+    public boolean isCovered(World world, double px, double pz) {
+        refresh();
+        lookups++;
+        WorldRaster raster = rasters.get(world);
+        return raster != null && raster.isCovered(px, pz);
+    }
+
+    private void refresh() {
+        StormSnapshot current = snapshots.current();
+        if (current == snapshot) {
+            return;
+        }
+        snapshot = current;
+
+        for (WorldRaster raster : rasters.values()) {
+            raster.seenSlots = 0L;
+            raster.overflowCount = 0;
+        }
+        for (int storm = 0; storm < snapshot.size(); storm++) {
+            rasters.computeIfAbsent(snapshot.getWorld(storm), w -> new WorldRaster()).update(storm);
+        }
+
+        Iterator<WorldRaster> iterator = rasters.values().iterator();
+        while (iterator.hasNext()) {
+            WorldRaster raster = iterator.next();
+            raster.removeUnseen();
+            if (raster.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean within(double dx, double dz, double radius) {
+        return dx * dx + dz * dz <= radius * radius;
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return (long) cellX << 32 | (cellZ & 0xffffffffL);
+    }
+
+    /**
+     * @return Chunks touched by at least one storm, across all worlds
+     */
+    public int getCellCount() {
+        int count = 0;
+        for (WorldRaster raster : rasters.values()) {
+            count += raster.cells.size;
+        }
+        return count;
+    }
+
+    /**
+     * @return Footprints drawn (a storm's first, then one each time it drifts past the margin)
+     */
+    public long getRedraws() {
+        return redraws;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return Lookups answered from the raster alone, with no exact test
+     */
+    public long getRasterAnswers() {
+        return rasterAnswers;
+    }
+
+    public long getExactTests() {
+        return exactTests;
+    }
+}
@@ -0,0 +1,351 @@
+package dev.ked.stormcraft.essence.storm;
+
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Spatial index over the tick's {@link StormSnapshot}, rebuilt when the first query of a tick finds
+ * a new snapshot. Storms are bucketed by world, then into a uniform grid of {@link #CELL_SIZE}-block
+ * cells, so nearest-storm, within-radius and edge-distance queries only visit the cells around the
+ * query point instead of every storm.
+ *
+ * Storms are columns, as in Stormcraft, so all distances are horizontal (x/z) and are compared
+ * squared wherever the real distance isn't needed. Queries return indexes into the snapshot, valid
+ * until the next tick; read positions through the getters. Main thread only.
+ */
+public class StormIndex {
+    /** Grid cell width in blocks, about one storm across */
+    public static final int CELL_SIZE = 256;
+    private static final int MEMBER_BITS = 20;
+
+    private final StormSnapshotService snapshots;
+    private final Map<World, WorldGrid> grids = new HashMap<>();
+    private StormSnapshot snapshot;
+
+    // Metrics
+    private long rebuilds;
+    private long queries;
+    private long stormsVisited;
+
+    /**
+     * One world's storms, sorted by cell: cell {@code i} has key {@code cellKeys[i]} and holds
+     * {@code members[cellStart[i]]} up to (not including) {@code members[cellStart[i + 1]]}
+     */
+    private static final class WorldGrid {
+        private int size;
+        private int[] members = new int[8];
+        private long[] sortKeys = new long[8];
+        private long[] cellKeys = new long[8];
+        private int[] cellStart = new int[9];
+        private int cells;
+        private int minCx, maxCx, minCz, maxCz;
+        private double maxRadius;
+
+        private void add(int storm) {
+            if (size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+                sortKeys = Arrays.copyOf(sortKeys, size * 2);
+                cellKeys = Arrays.copyOf(cellKeys, size * 2);
+                cellStart = Arrays.copyOf(cellStart, size * 2 + 1);
+            }
+            members[size++] = storm;
+        }
+
+        private long cellKey(int cx, int cz) {
+            return (long) (cx - minCx) * (maxCz - minCz + 1) + (cz - minCz);
+        }
+
+        /**
+         * @return The cell's position in {@code cellKeys}, or -1 if it holds no storms
+         */
+        private int findCell(int cx, int cz) {
+            if (cx < minCx || cx > maxCx || cz < minCz || cz > maxCz) {
+                return -1;
+            }
+            int found = Arrays.binarySearch(cellKeys, 0, cells, cellKey(cx, cz));
+            return found >= 0 ? found : -1;
+        }
+    }
+
+    public StormIndex(StormSnapshotService snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * @return false if Stormcraft isn't available, in which case the index is always empty
+     */
+    public boolean isAvailable() {
+        return snapshots.isAvailable();
+    }
+
+    /**
+     * @return The snapshot the index was built from, for reading storms by index
+     */
+    public StormSnapshot getSnapshot() {
+        refresh();
+        return snapshot;
+    }
+
+    /**
+     * @return Active storms across all worlds
+     */
+    public int size() {
+        return getSnapshot().size();
+    }
+
+    /**
+     * @return The storm whose center is nearest the point, or -1 if the world has none
+     */
+    public int nearest(World world, double px, double pz) {
+        return search(world, px, pz, false);
+    }
+
+    /**
+     * @return The storm whose edge is nearest the point (the one it is deepest inside, if any),
+     *         or -1 if the world has none
+     */
+    public int nearestEdge(World world, double px, double pz) {
+        return search(world, px, pz, true);
+    }
+
+    /**
+     * @return The storm the point is inside, or -1 if none
+     */
+    public int containing(World world, double px, double pz) {
+        int storm = nearestEdge(world, px, pz);
+        return storm >= 0 && getEdgeDistance(storm, px, pz) <= 0 ? storm : -1;
+    }
+
+    /**
+     * Passes every storm whose center is within {@code range} of the point to the consumer
+     * @return Storms found
+     */
+    public int forEachWithin(World world, double px, double pz, double range, IntConsumer consumer) {
+        WorldGrid grid = grid(world);
+        if (grid == null) {
+            return 0;
+        }
+
+        double rangeSq = range * range;
+        int fromCx = Math.max(grid.minCx, cell(px - range));
+        int toCx = Math.min(grid.maxCx, cell(px + range));
+        int fromCz = Math.max(grid.minCz, cell(pz - range));
+        int toCz = Math.min(grid.maxCz, cell(pz + range));
+        int found = 0;
+        for (int cx = fromCx; cx <= toCx; cx++) {
+            for (int cz = fromCz; cz <= toCz; cz++) {
+                int cellIndex = grid.findCell(cx, cz);
+                if (cellIndex < 0) continue;
+
+                for (int m = grid.cellStart[cellIndex]; m < grid.cellStart[cellIndex + 1]; m++) {
+                    int storm = grid.members[m];
+                    stormsVisited++;
+                    if (distanceSquared(storm, px, pz) <= rangeSq) {
+                        consumer.accept(storm);
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return Distance from the point to the storm's edge, negative if inside it
+     */
+    public double getEdgeDistance(int storm, double px, double pz) {
+        return Math.sqrt(distanceSquared(storm, px, pz)) - snapshot.getRadius(storm);
+    }
+
+    public double getDistanceSquared(int storm, double px, double pz) {
+        return distanceSquared(storm, px, pz);
+    }
+
+    public TravelingStorm getStorm(int storm) {
+        return snapshot.getStorm(storm);
+    }
+
+    public double getX(int storm) {
+        return snapshot.getX(storm);
+    }
+
+    public double getY(int storm) {
+        return snapshot.getY(storm);
+    }
+
+    public double getZ(int storm) {
+        return snapshot.getZ(storm);
+    }
+
+    /**
+     * Walks rings of cells outward from the point's cell until no closer storm can be left
+     * @param edge Rank by distance to the edge rather than the center
+     */
+    private int search(World world, double px, double pz, boolean edge) {
+        WorldGrid grid = grid(world);
+        if (grid == null) {
+            return -1;
+        }
+
+        int cx = cell(px);
+        int cz = cell(pz);
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        // Start at the first ring that reaches the grid, if the point is outside it
+        int r = Math.max(0, Math.max(Math.max(grid.minCx - cx, cx - grid.maxCx), Math.max(grid.minCz - cz, cz - grid.maxCz)));
+        for (; ; r++) {
+            if (best >= 0) {
+                // Nothing in this ring or beyond can be closer than this
+                double bound = ringDistance(px, pz, cx, cz, r);
+                if (edge ? bound - grid.maxRadius > bestScore : bound * bound > bestScore) {
+                    break;
+                }
+            }
+            if (cx - r < grid.minCx && cx + r > grid.maxCx && cz - r < grid.minCz && cz + r > grid.maxCz) {
+                break; // Ring lies wholly outside the grid
+            }
+
+            for (int dx = -r; dx <= r; dx++) {
+                // Whole columns at the ring's sides, just the top and bottom cells in between
+                int step = dx == -r || dx == r ? 1 : 2 * r;
+                for (int dz = -r; dz <= r; dz += step) {
+                    int cellIndex = grid.findCell(cx + dx, cz + dz);
+                    if (cellIndex < 0) continue;
+
+                    for (int m = grid.cellStart[cellIndex]; m < grid.cellStart[cellIndex + 1]; m++) {
+                        int storm = grid.members[m];
+                        stormsVisited++;
+                        double score = edge ? getEdgeDistance(storm, px, pz) : distanceSquared(storm, px, pz);
+                        if (score < bestScore) {
+                            bestScore = score;
+                            best = storm;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return A lower bound on the distance from the point to any cell in ring {@code r} around its cell
+     */
+    private static double ringDistance(double px, double pz, int cx, int cz, int r) {
+        if (r == 0) {
+            return 0.0;
+        }
+        double west = px - (double) (cx - r + 1) * CELL_SIZE;
+        double east = (double) (cx + r) * CELL_SIZE - px;
+        double north = pz - (double) (cz - r + 1) * CELL_SIZE;
+        double south = (double) (cz + r) * CELL_SIZE - pz;
+        return Math.min(Math.min(west, east), Math.min(north, south));
+    }
+
+    private static int cell(double coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private double distanceSquared(int storm, double px, double pz) {
+        double dx = px - snapshot.getX(storm);
+        double dz = pz - snapshot.getZ(storm);
+        return dx * dx + dz * dz;
+    }
+
+    private WorldGrid grid(World world) {
+        refresh();
+        queries++;
+        return grids.get(world);
+    }
+
+    private void refresh() {
+        StormSnapshot current = snapshots.current();
+        if (current != snapshot) {
+            snapshot = current;
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        rebuilds++;
+        for (WorldGrid grid : grids.values()) {
+            grid.size = 0;
+        }
+        for (int storm = 0; storm < snapshot.size(); storm++) {
+            grids.computeIfAbsent(snapshot.getWorld(storm), w -> new WorldGrid()).add(storm);
+        }
+        // Don't hold on to worlds that no longer have storms
+        grids.values().removeIf(grid -> grid.size == 0);
+
+        for (WorldGrid grid : grids.values()) {
+            build(grid);
+        }
+    }
+
+    /**
+     * Sorts a world's storms by cell and records where each cell's run starts
+     */
+    private void build(WorldGrid grid) {
+        grid.minCx = grid.minCz = Integer.MAX_VALUE;
+        grid.maxCx = grid.maxCz = Integer.MIN_VALUE;
+        grid.maxRadius = 0.0;
+        for (int m = 0; m < grid.size; m++) {
+            int storm = grid.members[m];
+            int cx = cell(snapshot.getX(storm));
+            int cz = cell(snapshot.getZ(storm));
+            grid.minCx = Math.min(grid.minCx, cx);
+            grid.maxCx = Math.max(grid.maxCx, cx);
+            grid.minCz = Math.min(grid.minCz, cz);
+            grid.maxCz = Math.max(grid.maxCz, cz);
+            grid.maxRadius = Math.max(grid.maxRadius, snapshot.getRadius(storm));
+        }
+
+        // Cell key in the high bits, storm index in the low bits, so one primitive sort groups them
+        for (int m = 0; m < grid.size; m++) {
+            int storm = grid.members[m];
+            grid.sortKeys[m] = grid.cellKey(cell(snapshot.getX(storm)), cell(snapshot.getZ(storm))) << MEMBER_BITS | storm;
+        }
+        Arrays.sort(grid.sortKeys, 0, grid.size);
+
+        grid.cells = 0;
+        long lastKey = -1;
+        for (int m = 0; m < grid.size; m++) {
+            long key = grid.sortKeys[m] >>> MEMBER_BITS;
+            grid.members[m] = (int) (grid.sortKeys[m] & ((1L << MEMBER_BITS) - 1));
+            if (key != lastKey) {
+                grid.cellKeys[grid.cells] = key;
+                grid.cellStart[grid.cells] = m;
+                grid.cells++;
+                lastKey = key;
+            }
+        }
+        grid.cellStart[grid.cells] = grid.size;
+    }
+
+    /**
+     * @return Times the index was rebuilt (at most once per snapshot, only on ticks it was queried)
+     */
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    /**
+     * @return Storms examined across all queries (compare with queries times storms for a linear scan)
+     */
+    public long getStormsVisited() {
+        return stormsVisited;
+    }
+
+    public int getWorldCount() {
+        refresh();
+        return grids.size();
+    }
+}
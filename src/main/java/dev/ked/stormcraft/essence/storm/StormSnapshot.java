@@ -0,0 +1,100 @@
+package dev.ked.stormcraft.essence.storm;
+
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.World;
+
+/**
+ * Every active storm as it stood on one tick: center, damage radius, world and horizontal velocity,
+ * in primitive arrays indexed by storm. Never changes once taken, so it can be handed to anything
+ * that reads storms during that tick.
+ */
+public final class StormSnapshot {
+    private static final TravelingStorm[] NO_STORMS = new TravelingStorm[0];
+    private static final World[] NO_WORLDS = new World[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private final long tick;
+    private final int size;
+    private final TravelingStorm[] storms;
+    private final World[] worlds;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final double[] radius;
+    private final double[] velocityX;
+    private final double[] velocityZ;
+
+    StormSnapshot(long tick, int size, TravelingStorm[] storms, World[] worlds, double[] x, double[] y, double[] z,
+                  double[] radius, double[] velocityX, double[] velocityZ) {
+        this.tick = tick;
+        this.size = size;
+        this.storms = storms;
+        this.worlds = worlds;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.radius = radius;
+        this.velocityX = velocityX;
+        this.velocityZ = velocityZ;
+    }
+
+    static StormSnapshot empty(long tick) {
+        return new StormSnapshot(tick, 0, NO_STORMS, NO_WORLDS, NO_VALUES, NO_VALUES, NO_VALUES, NO_VALUES, NO_VALUES, NO_VALUES);
+    }
+
+    /**
+     * @return The server tick this was taken on
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The storm itself, for changing it (reads should use the snapshot's values)
+     */
+    public TravelingStorm getStorm(int storm) {
+        return storms[storm];
+    }
+
+    public World getWorld(int storm) {
+        return worlds[storm];
+    }
+
+    public double getX(int storm) {
+        return x[storm];
+    }
+
+    public double getY(int storm) {
+        return y[storm];
+    }
+
+    public double getZ(int storm) {
+        return z[storm];
+    }
+
+    public double getRadius(int storm) {
+        return radius[storm];
+    }
+
+    /**
+     * @return Blocks per second along x, towards the storm's next waypoint
+     */
+    public double getVelocityX(int storm) {
+        return velocityX[storm];
+    }
+
+    /**
+     * @return Blocks per second along z, towards the storm's next waypoint
+     */
+    public double getVelocityZ(int storm) {
+        return velocityZ[storm];
+    }
+}
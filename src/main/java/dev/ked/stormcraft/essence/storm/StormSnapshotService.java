@@ -0,0 +1,113 @@
+package dev.ked.stormcraft.essence.storm;
+
+import dev.ked.stormcraft.StormcraftPlugin;
+import dev.ked.stormcraft.model.TravelingStorm;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.List;
+
+/**
+ * The one place the essence plugin reads Stormcraft's storms. The first {@link #current()} call
+ * of a tick takes a {@link StormSnapshot}; every other call that tick gets the same one, so storms
+ * are read from Stormcraft at most once per tick however many abilities and listeners need them.
+ * Main thread only.
+ */
+public class StormSnapshotService {
+    private final StormcraftPlugin stormcraftPlugin;
+    private StormSnapshot current = StormSnapshot.empty(Long.MIN_VALUE);
+
+    // Metrics
+    private long captures;
+    private long totalCaptureNanos;
+    private long lastCaptureMicros;
+    private long maxCaptureMicros;
+
+    public StormSnapshotService(StormcraftPlugin stormcraftPlugin) {
+        this.stormcraftPlugin = stormcraftPlugin;
+    }
+
+    /**
+     * @return false if Stormcraft isn't available, in which case every snapshot is empty
+     */
+    public boolean isAvailable() {
+        return stormcraftPlugin != null;
+    }
+
+    /**
+     * @return This tick's snapshot, taking it if nothing has asked yet this tick
+     */
+    public StormSnapshot current() {
+        long tick = Bukkit.getCurrentTick();
+        if (current.getTick() != tick) {
+            current = capture(tick);
+        }
+        return current;
+    }
+
+    private StormSnapshot capture(long tick) {
+        if (stormcraftPlugin == null) {
+            return StormSnapshot.empty(tick);
+        }
+
+        long start = System.nanoTime();
+        List<TravelingStorm> active = stormcraftPlugin.getStormManager().getActiveStorms();
+        int size = active.size();
+        TravelingStorm[] storms = new TravelingStorm[size];
+        World[] worlds = new World[size];
+        double[] x = new double[size];
+        double[] y = new double[size];
+        double[] z = new double[size];
+        double[] radius = new double[size];
+        double[] velocityX = new double[size];
+        double[] velocityZ = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            TravelingStorm storm = active.get(i);
+            Location location = storm.getCurrentLocation();
+            storms[i] = storm;
+            worlds[i] = location.getWorld();
+            x[i] = location.getX();
+            y[i] = location.getY();
+            z[i] = location.getZ();
+            radius[i] = storm.getDamageRadius();
+
+            // Heading for the next waypoint at its base speed (the target is the storm itself once it has arrived)
+            Location target = storm.getTargetLocation();
+            double dx = target.getX() - x[i];
+            double dz = target.getZ() - z[i];
+            double distance = Math.sqrt(dx * dx + dz * dz);
+            if (distance > 0) {
+                velocityX[i] = dx / distance * storm.getMovementSpeed();
+                velocityZ[i] = dz / distance * storm.getMovementSpeed();
+            }
+        }
+
+        long nanos = System.nanoTime() - start;
+        captures++;
+        totalCaptureNanos += nanos;
+        lastCaptureMicros = nanos / 1000;
+        maxCaptureMicros = Math.max(maxCaptureMicros, lastCaptureMicros);
+        return new StormSnapshot(tick, size, storms, worlds, x, y, z, radius, velocityX, velocityZ);
+    }
+
+    /**
+     * @return Snapshots taken (at most one per tick, only on ticks something read storms)
+     */
+    public long getCaptures() {
+        return captures;
+    }
+
+    public long getLastCaptureMicros() {
+        return lastCaptureMicros;
+    }
+
+    public long getMaxCaptureMicros() {
+        return maxCaptureMicros;
+    }
+
+    public double getAverageCaptureMicros() {
+        return captures > 0 ? totalCaptureNanos / 1000.0 / captures : 0.0;
+    }
+}